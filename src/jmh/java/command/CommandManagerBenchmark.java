@@ -0,0 +1,113 @@
+package command;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import dar.Storage;
+import task.Deadline;
+import task.Task;
+import task.ToDo;
+
+/**
+ * Measures the throughput of commands on one CommandManager shared by several threads.
+ * <p>
+ * Each read benchmark is run on one thread and on every core, so comparing the two shows how well reads scale.
+ * The "mixed" group runs three reading threads against one thread adding and deleting tasks.
+ * Tasks are kept in memory only, so storage does not affect the results.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommandManagerBenchmark {
+    @Param({"10000"})
+    private int taskCount;
+
+    private CommandManager commandManager;
+
+    /**
+     * Creates a CommandManager holding the given number of todos and deadlines.
+     */
+    @Setup
+    public void setUp() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            tasks.add((i % 2 == 0)
+                    ? new ToDo("Read chapter " + i)
+                    : new Deadline("Submit report " + i + " by 0" + (1 + i % 9) + "/01/2030 1200"));
+        }
+        commandManager = new CommandManager(new Storage("benchmark.txt") {
+            @Override
+            public void saveTasks(List<Task> tasksToSave) {
+                // Keep the benchmark in memory
+            }
+
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>(tasks);
+            }
+        });
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String listSingleThread() {
+        return commandManager.listTasks(taskCount / 2, CommandManager.PAGE_SIZE);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String listAllCores() {
+        return commandManager.listTasks(taskCount / 2, CommandManager.PAGE_SIZE);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String findSingleThread() {
+        return commandManager.findTasks("report 12");
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String findAllCores() {
+        return commandManager.findTasks("report 12");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String sortSingleThread() {
+        return commandManager.sortDeadline();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sortAllCores() {
+        return commandManager.sortDeadline();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public String mixedRead() {
+        return commandManager.findTasks("chapter 4");
+    }
+
+    /**
+     * Adds a task and deletes it again, so the list keeps its size.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public String mixedWrite() {
+        commandManager.addTodo("Temporary task");
+        return commandManager.deleteTask(Integer.toString(taskCount + 1));
+    }
+}
@@ -0,0 +1,89 @@
+package command;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import dar.Storage;
+import task.SyntheticTasks;
+import task.Task;
+
+/**
+ * Measures single commands on task lists from 10 to a million tasks, on one thread.
+ * <p>
+ * Tasks are kept in memory only, so storage does not affect the results; see StorageBenchmark for that.
+ * Commands that change the list undo their change in the same call, so the list keeps its size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandManagerOperationsBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    private int taskCount;
+
+    private CommandManager commandManager;
+    private String middleTaskNumber;
+    private int replacementCount;
+
+    /**
+     * Creates a CommandManager holding the generated tasks.
+     */
+    @Setup
+    public void setUp() {
+        List<Task> tasks = new SyntheticTasks(42).tasks(taskCount);
+        commandManager = new CommandManager(new Storage("benchmark.txt") {
+            @Override
+            public void saveTasks(List<Task> tasksToSave) {
+                // Keep the benchmark in memory
+            }
+
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>(tasks);
+            }
+        });
+        middleTaskNumber = Integer.toString(taskCount / 2 + 1);
+    }
+
+    @Benchmark
+    public String addThenDelete() {
+        commandManager.addTodo("Temporary task");
+        return commandManager.deleteTask(Integer.toString(taskCount + 1));
+    }
+
+    @Benchmark
+    public String deleteThenAdd() {
+        commandManager.deleteTask(middleTaskNumber);
+        // Each replacement is new, so the list never fills up with duplicates
+        return commandManager.addTodo("Replacement task " + replacementCount++);
+    }
+
+    @Benchmark
+    public String markThenUnmark() {
+        commandManager.markTask(middleTaskNumber);
+        return commandManager.unmarkTask(middleTaskNumber);
+    }
+
+    @Benchmark
+    public String find() {
+        return commandManager.findTasks("report 1");
+    }
+
+    @Benchmark
+    public String sort() {
+        return commandManager.sortDeadline();
+    }
+
+    @Benchmark
+    public String list() {
+        return commandManager.listTasks(taskCount / 2, CommandManager.PAGE_SIZE);
+    }
+}
@@ -0,0 +1,80 @@
+package command;
+import java.lang.ref.Reference;
+import java.util.List;
+
+import task.SyntheticTasks;
+import task.Task;
+
+/**
+ * Compares how much heap a {@link TaskList} and a {@link ColumnarTaskStore} keep for the same generated tasks.
+ * <p>
+ * Retained heap is not something JMH measures, so this is a plain program: it builds each store, collects garbage
+ * until the used heap settles, and reports the difference from before the store was built. Run it with
+ * {@code ./gradlew taskStoreFootprint}, optionally with {@code -Pcounts=100000,1000000}.
+ */
+public class TaskStoreFootprint {
+    private static final int GC_ROUNDS = 5;
+
+    /**
+     * Prints the retained heap of each store for each task count.
+     *
+     * @param args The task counts to compare, comma separated; one million if none are given.
+     */
+    public static void main(String[] args) {
+        String counts = (args.length > 0) ? args[0] : "1000000";
+        System.out.printf("%10s %14s %14s %14s%n", "tasks", "TaskList (MB)", "columnar (MB)", "estimated (MB)");
+        for (String count : counts.split(",")) {
+            compare(Integer.parseInt(count.trim()));
+        }
+    }
+
+    private static void compare(int count) {
+        List<String> lines = new SyntheticTasks(42).dataLines(count);
+        long taskListBytes = measureTaskList(lines);
+        ColumnarTaskStore[] store = new ColumnarTaskStore[1];
+        long storeBytes = measureColumnarStore(lines, store);
+
+        System.out.printf("%10d %14.1f %14.1f %14.1f%n", count, toMegabytes(taskListBytes),
+                toMegabytes(storeBytes), toMegabytes(store[0].estimatedBytes()));
+    }
+
+    /**
+     * Returns the heap kept by a TaskList of the tasks. The list can be collected once this returns.
+     */
+    private static long measureTaskList(List<String> lines) {
+        long before = usedHeap();
+        TaskList taskList = new TaskList();
+        for (String line : lines) {
+            taskList.add(Task.fromDataFormat(line));
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(taskList);
+        return after - before;
+    }
+
+    /**
+     * Returns the heap kept by a ColumnarTaskStore of the tasks, and hands the store back for its own estimate.
+     */
+    private static long measureColumnarStore(List<String> lines, ColumnarTaskStore[] result) {
+        long before = usedHeap();
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        for (String line : lines) {
+            store.add(Task.fromDataFormat(line)); // The task object itself is garbage straight away
+        }
+        long after = usedHeap();
+        result[0] = store;
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double toMegabytes(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,76 @@
+package dar;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import command.CommandManager;
+import task.Task;
+
+/**
+ * Measures how fast a line of input is matched to its command, without running the command.
+ * <p>
+ * "splitAndHashMap" is the previous approach: trim, split off the command word, lower-case it, and look it up
+ * in a HashMap with containsKey and get. "trie" looks the word up in place with {@link CommandTrie}.
+ * The split also copies out the description, which the new path only does once the command is known.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DispatchBenchmark {
+    private static final String[] INPUTS = {
+        "todo Buy milk", "list", "mark 12", "deadline Submit report by 01/02/2030 1200", "find milk",
+        "DELETE 3", "  event Camp from 12/10/2030 to 14/10/2030  ", "unknown command", "due within 7", "ls"
+    };
+
+    private Dar dar;
+    private HashMap<String, Function<String, String>> instructionMap;
+
+    /**
+     * Creates a Dar on an empty in-memory task list, and a HashMap holding its commands.
+     */
+    @Setup
+    public void setUp() {
+        dar = new Dar(new CommandManager(new Storage("benchmark.txt") {
+            @Override
+            public void saveTasks(List<Task> tasks) {
+                // Keep the benchmark in memory
+            }
+
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>();
+            }
+        }));
+        instructionMap = new HashMap<>();
+        for (String word : new String[] {"list", "sort", "mark", "unmark", "todo", "deadline", "event", "delete",
+                "find", "next", "due", "overdue", "on", "overlap", "free", "bye"}) {
+            instructionMap.put(word, dar.findInstruction(word));
+        }
+    }
+
+    @Benchmark
+    public void splitAndHashMap(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            String[] inputParts = input.trim().split(" ", 2);
+            String commandWord = inputParts[0].toLowerCase();
+            String descriptionText = (inputParts.length > 1) ? inputParts[1] : "";
+            blackhole.consume(instructionMap.containsKey(commandWord) ? instructionMap.get(commandWord) : null);
+            blackhole.consume(descriptionText);
+        }
+    }
+
+    @Benchmark
+    public void trie(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            blackhole.consume(dar.findInstruction(input));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dar;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import task.SyntheticTasks;
+import task.Task;
+
+/**
+ * Measures saving and loading whole task files, for each way of storing them, from 10 to a million tasks.
+ * <p>
+ * "text" and "binary" are plain {@link Storage} in each {@link StorageFormat}; "journal" is {@link JournalStorage},
+ * whose saves write a full snapshot and whose loads also replay the (here empty) journal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StorageBenchmark {
+    @Param({"10", "1000", "100000", "1000000"})
+    private int taskCount;
+
+    @Param({"text", "binary", "journal"})
+    private String mode;
+
+    private Path directory;
+    private Storage storage;
+    private List<Task> tasks;
+
+    /**
+     * Generates the tasks and saves them once, so there is a file to load.
+     *
+     * @throws IOException If the temporary directory cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("dar-benchmark");
+        String filePath = directory.resolve("tasks.dat").toString();
+        switch (mode) {
+        case "binary":
+            storage = new Storage(filePath, StorageFormat.BINARY);
+            break;
+        case "journal":
+            storage = new JournalStorage(filePath);
+            break;
+        default:
+            storage = new Storage(filePath, StorageFormat.TEXT);
+            break;
+        }
+        tasks = new SyntheticTasks(42).tasks(taskCount);
+        storage.saveTasks(tasks);
+    }
+
+    /**
+     * Deletes the files written by the benchmark.
+     *
+     * @throws IOException If a file cannot be deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        if (storage instanceof JournalStorage) {
+            ((JournalStorage) storage).close();
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void saveTasks() {
+        storage.saveTasks(tasks);
+    }
+
+    @Benchmark
+    public List<Task> loadTasks() {
+        return storage.loadTasks();
+    }
+}
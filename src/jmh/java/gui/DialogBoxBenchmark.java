@@ -0,0 +1,49 @@
+package gui;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javafx.application.Platform;
+
+/**
+ * Measures the cost of showing one message in a new dialog box loaded from the FXML, and in a dialog box
+ * that is reused, as the chat list's cells do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DialogBoxBenchmark {
+    private static final String MESSAGE = "Got it! I've added this todo:\n1. [T][ ] Buy milk\n";
+
+    private DialogBox reusedDialog;
+
+    /**
+     * Starts the JavaFX toolkit, which controls need for their default styles.
+     */
+    @Setup
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // Already started by an earlier trial in this JVM
+        }
+        reusedDialog = DialogBox.getDukeDialog("", null);
+    }
+
+    @Benchmark
+    public DialogBox loadFxmlPerMessage() {
+        return DialogBox.loadFromFxml(MESSAGE, null);
+    }
+
+    @Benchmark
+    public DialogBox reuseDialogBox() {
+        reusedDialog.setText(MESSAGE);
+        return reusedDialog;
+    }
+}
@@ -0,0 +1,124 @@
+package task;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares parsing the text after "by" with {@link DeadlineParser} against the way Deadline used to parse it:
+ * copying out runs of digits, matching each against regular expressions and parsing it with a formatter,
+ * with an exception for an invalid date.
+ * <p>
+ * Some of the inputs can be made invalid, e.g. "12/13/2031", to show the cost of those exceptions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DeadlineParsingBenchmark {
+    private static final int INPUT_COUNT = 1024;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HHmm");
+
+    @Param({"0", "10"})
+    private int invalidPercent;
+
+    private String[] deadlines;
+    private DeadlineParser parser;
+    private int next;
+
+    /**
+     * Generates the text after "by" of deadlines, as "DD/MM/YYYY HHMM".
+     */
+    @Setup
+    public void setUp() {
+        SyntheticTasks generator = new SyntheticTasks(42);
+        Random random = new Random(7);
+        deadlines = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            String description = generator.deadlineDescription(i);
+            deadlines[i] = description.substring(description.lastIndexOf(" by ") + 4);
+            if (random.nextInt(100) < invalidPercent) {
+                deadlines[i] = deadlines[i].substring(0, 3) + "13" + deadlines[i].substring(5);
+            }
+        }
+        parser = new DeadlineParser();
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        next = (next + 1) % INPUT_COUNT;
+        if (parser.parse(deadlines[next])) {
+            blackhole.consume(parser.getDate());
+            blackhole.consume(parser.getTime());
+        }
+    }
+
+    @Benchmark
+    public void regexAndFormatter(Blackhole blackhole) {
+        next = (next + 1) % INPUT_COUNT;
+        Object[] dateAndTime = new Object[2];
+        if (parseWithRegex(extractNumericSequences(deadlines[next]), dateAndTime)) {
+            blackhole.consume(dateAndTime[0]);
+            blackhole.consume(dateAndTime[1]);
+        }
+    }
+
+    /**
+     * The digit-run extraction Deadline used before {@link DeadlineParser}.
+     */
+    private static List<String> extractNumericSequences(String description) {
+        List<String> numberSequences = new ArrayList<>();
+        StringBuilder currentNumber = new StringBuilder();
+
+        for (char ch : description.toCharArray()) {
+            if (Character.isDigit(ch) || ch == '/') {
+                currentNumber.append(ch);
+            } else {
+                if (currentNumber.length() > 0) {
+                    numberSequences.add(currentNumber.toString());
+                    currentNumber.setLength(0);
+                }
+            }
+        }
+
+        if (currentNumber.length() > 0) {
+            numberSequences.add(currentNumber.toString());
+        }
+        return numberSequences;
+    }
+
+    /**
+     * The regex and formatter parsing Deadline used before {@link DeadlineParser}.
+     */
+    private static boolean parseWithRegex(List<String> numberSequences, Object[] dateAndTime) {
+        boolean isValidDateOrTime = false;
+        for (String element : numberSequences) {
+            try {
+                if (element.matches("\\d{2}/\\d{2}/\\d{4}")) {
+                    dateAndTime[0] = LocalDate.parse(element, DATE_FORMATTER);
+                    isValidDateOrTime = true;
+                } else if (element.matches("\\d{4}")) {
+                    dateAndTime[1] = LocalTime.parse(element, TIME_FORMATTER);
+                    isValidDateOrTime = true;
+                }
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return isValidDateOrTime;
+    }
+}
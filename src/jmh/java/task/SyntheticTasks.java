@@ -0,0 +1,87 @@
+package task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic task lists for benchmarks.
+ * <p>
+ * The same size and seed always give the same tasks. The list is a mix of roughly half todos, a third
+ * deadlines and the rest events, a quarter of them done, with descriptions drawn from a small vocabulary
+ * so that keyword searches and duplicate checks find realistic numbers of matches.
+ */
+public class SyntheticTasks {
+    private static final String[] VERBS = {"Buy", "Read", "Submit", "Call", "Fix", "Plan", "Review", "Book"};
+    private static final String[] OBJECTS = {"milk", "report", "chapter", "dentist", "bike", "trip", "essay",
+        "tickets", "slides", "budget"};
+
+    private final Random random;
+
+    /**
+     * Constructs a generator with the given seed.
+     *
+     * @param seed The seed for the random choices.
+     */
+    public SyntheticTasks(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the given number of tasks, in data format, one per line.
+     *
+     * @param count The number of tasks.
+     */
+    public List<String> dataLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(dataLine(i));
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the given number of tasks.
+     *
+     * @param count The number of tasks.
+     */
+    public List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (String line : dataLines(count)) {
+            tasks.add(Task.fromDataFormat(line));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns a deadline description as typed after "deadline", e.g. "Submit report 12 by 03/04/2031 0930".
+     *
+     * @param number A number to make the description unique.
+     */
+    public String deadlineDescription(int number) {
+        return description(number) + " by " + date() + " " + time();
+    }
+
+    private String dataLine(int number) {
+        String done = (random.nextInt(4) == 0) ? "1" : "0";
+        int kind = random.nextInt(6);
+        if (kind < 3) {
+            return "T | " + done + " | " + description(number);
+        } else if (kind < 5) {
+            return "D | " + done + " | " + deadlineDescription(number);
+        }
+        String day = date();
+        return "E | " + done + " | " + description(number) + " from " + day + " " + time() + " to " + time();
+    }
+
+    private String description(int number) {
+        return VERBS[random.nextInt(VERBS.length)] + " " + OBJECTS[random.nextInt(OBJECTS.length)] + " " + number;
+    }
+
+    private String date() {
+        return String.format("%02d/%02d/%d", 1 + random.nextInt(28), 1 + random.nextInt(12), 2030 + random.nextInt(3));
+    }
+
+    private String time() {
+        return String.format("%02d%02d", random.nextInt(24), 15 * random.nextInt(4));
+    }
+}
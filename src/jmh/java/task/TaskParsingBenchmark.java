@@ -0,0 +1,51 @@
+package task;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures parsing single tasks: a line of the data file, and a deadline as typed by the user.
+ * Each call takes the next of a fixed set of generated inputs, so the mix of task kinds stays the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskParsingBenchmark {
+    private static final int INPUT_COUNT = 1024;
+
+    private List<String> dataLines;
+    private String[] deadlineDescriptions;
+    private int next;
+
+    /**
+     * Generates the inputs.
+     */
+    @Setup
+    public void setUp() {
+        SyntheticTasks generator = new SyntheticTasks(42);
+        dataLines = generator.dataLines(INPUT_COUNT);
+        deadlineDescriptions = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            deadlineDescriptions[i] = generator.deadlineDescription(i);
+        }
+    }
+
+    @Benchmark
+    public Task fromDataFormat() {
+        next = (next + 1) % INPUT_COUNT;
+        return Task.fromDataFormat(dataLines.get(next));
+    }
+
+    @Benchmark
+    public Deadline parseDeadline() {
+        next = (next + 1) % INPUT_COUNT;
+        return new Deadline(deadlineDescriptions[next]);
+    }
+}
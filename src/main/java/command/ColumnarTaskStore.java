@@ -0,0 +1,444 @@
+package command;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import task.Deadline;
+import task.Event;
+import task.Task;
+import task.ToDo;
+
+/**
+ * The ColumnarTaskStore holds tasks in a few primitive arrays instead of one object per task, so that very long
+ * task lists take a fraction of the memory of a {@link TaskList}.
+ * <p>
+ * Each column has one entry per task: a type tag ('T', 'D' or 'E') in a byte array, the done flags packed as bits,
+ * dates as epoch days and times as minutes of the day (a deadline's due date and time, or an event's parsed start,
+ * with its end in a second pair of columns), and where the task's text starts and how long it is. The text of every
+ * task is kept as UTF-8 in one shared arena; an event's description, start and end are stored one after the other,
+ * separated by line breaks, which never appear in a task.
+ * <p>
+ * {@link #get(int)} builds a new Task from the columns each time, so the tasks it returns are copies: changing one
+ * does not change the store, and the same position gives an equal but not identical task. Use
+ * {@link #setDone(int, boolean)} to mark or unmark a task. Deleting a task moves the ones after it down, which is a
+ * single array copy per column; the arena space of deleted tasks is reclaimed once it is more than half the arena.
+ * <p>
+ * There are no indexes: searches scan the columns and return positions, which are the tasks' numbers minus one.
+ * Deadlines and events are compared using the date and time columns, without building any task.
+ */
+public class ColumnarTaskStore extends AbstractList<Task> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_SIZE = 1024;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final short NO_TIME = -1;
+    /** The time of a moment at the very end of its day, {@link LocalTime#MAX}. */
+    private static final short END_OF_DAY = 24 * 60;
+    private static final byte FIELD_SEPARATOR = '\n';
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private long[] doneBits = new long[(INITIAL_CAPACITY + 63) / 64];
+    private int[] dates = new int[INITIAL_CAPACITY];
+    private short[] times = new short[INITIAL_CAPACITY];
+    private int[] endDates = new int[INITIAL_CAPACITY];
+    private short[] endTimes = new short[INITIAL_CAPACITY];
+    private int[] textStarts = new int[INITIAL_CAPACITY];
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+    private byte[] arena = new byte[INITIAL_ARENA_SIZE];
+    private int arenaSize;
+    private int liveTextBytes;
+    private int size;
+
+    /**
+     * Constructs an empty ColumnarTaskStore.
+     */
+    public ColumnarTaskStore() {
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a new task with the contents stored at the given position.
+     *
+     * @param index The position of the task, starting at 0.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        String text = new String(arena, textStarts[index], textLengths[index], StandardCharsets.UTF_8);
+        Task task;
+        if (types[index] == 'D') {
+            task = new Deadline(text, dates[index] != NO_DATE ? LocalDate.ofEpochDay(dates[index]) : null,
+                    times[index] != NO_TIME ? LocalTime.ofSecondOfDay(times[index] * 60L) : null);
+        } else if (types[index] == 'E') {
+            int fromStart = text.indexOf(FIELD_SEPARATOR);
+            int toStart = text.indexOf(FIELD_SEPARATOR, fromStart + 1);
+            task = new Event(text.substring(0, fromStart), text.substring(fromStart + 1, toStart),
+                    text.substring(toStart + 1));
+        } else {
+            task = new ToDo(text);
+        }
+
+        if (isDone(index)) {
+            task.setMark();
+        }
+        return task;
+    }
+
+    /**
+     * Appends a copy of the task to the end of the store.
+     *
+     * @param task The task to append.
+     * @return Always true.
+     */
+    @Override
+    public boolean add(Task task) {
+        assert task != null : "Task cannot be null";
+        if (size == types.length) {
+            grow();
+        }
+
+        int row = size;
+        dates[row] = NO_DATE;
+        times[row] = NO_TIME;
+        endDates[row] = NO_DATE;
+        endTimes[row] = NO_TIME;
+        if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            types[row] = 'D';
+            if (deadline.getDueDate() != null) {
+                dates[row] = (int) deadline.getDueDate().toEpochDay();
+            }
+            if (deadline.getDueTime() != null) {
+                times[row] = minuteOf(deadline.getDueTime());
+            }
+            appendText(row, deadline.getDescription());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            types[row] = 'E';
+            if (event.getStart() != null) {
+                dates[row] = (int) event.getStart().toLocalDate().toEpochDay();
+                times[row] = minuteOf(event.getStart().toLocalTime());
+                endDates[row] = (int) event.getEnd().toLocalDate().toEpochDay();
+                endTimes[row] = minuteOf(event.getEnd().toLocalTime());
+            }
+            appendText(row, event.getDescription() + (char) FIELD_SEPARATOR + event.getFrom()
+                    + (char) FIELD_SEPARATOR + event.getTo());
+        } else {
+            types[row] = 'T';
+            appendText(row, task.getDescription());
+        }
+        setBit(row, task.isDone());
+
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the task at the given position, moving the tasks after it down by one.
+     *
+     * @param index The position of the task, starting at 0.
+     * @return A copy of the removed task.
+     */
+    @Override
+    public Task remove(int index) {
+        Task task = get(index);
+        liveTextBytes -= textLengths[index];
+
+        int moved = size - index - 1;
+        System.arraycopy(types, index + 1, types, index, moved);
+        System.arraycopy(dates, index + 1, dates, index, moved);
+        System.arraycopy(times, index + 1, times, index, moved);
+        System.arraycopy(endDates, index + 1, endDates, index, moved);
+        System.arraycopy(endTimes, index + 1, endTimes, index, moved);
+        System.arraycopy(textStarts, index + 1, textStarts, index, moved);
+        System.arraycopy(textLengths, index + 1, textLengths, index, moved);
+        for (int row = index; row < size - 1; row++) {
+            setBit(row, bit(row + 1));
+        }
+        size--;
+        setBit(size, false);
+        modCount++;
+
+        if (liveTextBytes < arenaSize / 2 && arenaSize > INITIAL_ARENA_SIZE) {
+            packArena();
+        }
+        return task;
+    }
+
+    @Override
+    public void clear() {
+        types = new byte[INITIAL_CAPACITY];
+        doneBits = new long[(INITIAL_CAPACITY + 63) / 64];
+        dates = new int[INITIAL_CAPACITY];
+        times = new short[INITIAL_CAPACITY];
+        endDates = new int[INITIAL_CAPACITY];
+        endTimes = new short[INITIAL_CAPACITY];
+        textStarts = new int[INITIAL_CAPACITY];
+        textLengths = new int[INITIAL_CAPACITY];
+        arena = new byte[INITIAL_ARENA_SIZE];
+        arenaSize = 0;
+        liveTextBytes = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns whether the task at the given position is done, without building the task.
+     *
+     * @param index The position of the task, starting at 0.
+     */
+    public boolean isDone(int index) {
+        checkIndex(index);
+        return bit(index);
+    }
+
+    /**
+     * Marks or unmarks the task at the given position.
+     *
+     * @param index The position of the task, starting at 0.
+     * @param isDone Whether the task is done.
+     */
+    public void setDone(int index, boolean isDone) {
+        checkIndex(index);
+        setBit(index, isDone);
+    }
+
+    /**
+     * Returns the positions of the tasks whose description contains the keyword, ignoring case,
+     * like the "find" command. Only descriptions are searched, not an event's start and end.
+     *
+     * @param keyword The text to look for.
+     * @return The positions, in order.
+     */
+    public int[] findMatches(String keyword) {
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        return rowsWhere(row -> description(row).toLowerCase(Locale.ROOT).contains(lowerKeyword));
+    }
+
+    /**
+     * Returns the positions of the tasks with exactly the given description, compared byte by byte in the arena.
+     *
+     * @param description The description to look for.
+     * @return The positions, in order.
+     */
+    public int[] findDescription(String description) {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        return rowsWhere(row -> descriptionLength(row) == bytes.length
+                && Arrays.equals(arena, textStarts[row], textStarts[row] + bytes.length, bytes, 0, bytes.length));
+    }
+
+    /**
+     * Returns the positions of the deadlines in chronological order, followed by those with only a time, ordered
+     * by time, like {@link DeadlineIndex#inOrder()}. Deadlines due at the same moment keep their order.
+     */
+    public int[] deadlinesInOrder() {
+        int[] dated = sortedBy(rowsWhere(row -> types[row] == 'D' && dates[row] != NO_DATE), this::dueAt);
+        int[] undated = sortedBy(rowsWhere(row -> types[row] == 'D' && dates[row] == NO_DATE), row -> times[row]);
+        return IntStream.concat(IntStream.of(dated), IntStream.of(undated)).toArray();
+    }
+
+    /**
+     * Returns the positions of the dated deadlines due between the two moments, both included, in chronological
+     * order, like {@link DeadlineIndex#dueBetween(LocalDateTime, LocalDateTime)}.
+     *
+     * @param from The earliest due date and time to include.
+     * @param to The latest due date and time to include.
+     */
+    public int[] deadlinesDueBetween(LocalDateTime from, LocalDateTime to) {
+        return sortedBy(rowsWhere(row -> types[row] == 'D' && dates[row] != NO_DATE
+                && !dueAt(row).isBefore(from) && !dueAt(row).isAfter(to)), this::dueAt);
+    }
+
+    /**
+     * Returns the positions of the dated deadlines due before the given moment, in chronological order,
+     * like {@link DeadlineIndex#dueBefore(LocalDateTime)}.
+     *
+     * @param moment The moment the deadlines must be due before.
+     */
+    public int[] deadlinesDueBefore(LocalDateTime moment) {
+        return sortedBy(rowsWhere(row -> types[row] == 'D' && dates[row] != NO_DATE && dueAt(row).isBefore(moment)),
+                this::dueAt);
+    }
+
+    /**
+     * Returns the positions of the events with a parsed start and end that overlap the slot [from, to), ordered by
+     * start, like {@link EventIndex#overlapping(LocalDateTime, LocalDateTime)}.
+     *
+     * @param from The start of the slot.
+     * @param to The end of the slot.
+     */
+    public int[] eventsOverlapping(LocalDateTime from, LocalDateTime to) {
+        return sortedBy(rowsWhere(row -> types[row] == 'E' && dates[row] != NO_DATE
+                && moment(dates[row], times[row]).isBefore(to) && moment(endDates[row], endTimes[row]).isAfter(from)),
+                row -> moment(dates[row], times[row]));
+    }
+
+    /**
+     * Returns the start of the first slot of the given length, at or after the given moment, that no event
+     * overlaps, like {@link EventIndex#findFreeSlot(LocalDateTime, Duration)}.
+     *
+     * @param after The earliest moment the slot may start.
+     * @param length The length of the slot.
+     */
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration length) {
+        LocalDateTime candidate = after;
+        while (true) {
+            int[] clashes = eventsOverlapping(candidate, candidate.plus(length));
+            if (clashes.length == 0) {
+                return candidate;
+            }
+            // Every clash ends after the candidate, so the candidate moves forward each time
+            for (int row : clashes) {
+                LocalDateTime end = moment(endDates[row], endTimes[row]);
+                if (end.isAfter(candidate)) {
+                    candidate = end;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns roughly how many bytes the arrays behind the store take on the heap, including unused capacity.
+     * Array headers are counted as 16 bytes each.
+     */
+    public long estimatedBytes() {
+        int arrayHeader = 16;
+        return 9L * arrayHeader + types.length + 8L * doneBits.length + 4L * dates.length + 2L * times.length
+                + 4L * endDates.length + 2L * endTimes.length + 4L * textStarts.length + 4L * textLengths.length
+                + arena.length;
+    }
+
+    private String description(int row) {
+        return new String(arena, textStarts[row], descriptionLength(row), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the moment a dated deadline is due; the end of the day if it has no time.
+     */
+    private LocalDateTime dueAt(int row) {
+        return moment(dates[row], (times[row] == NO_TIME) ? END_OF_DAY : times[row]);
+    }
+
+    private static LocalDateTime moment(int date, short time) {
+        LocalTime timeOfDay = (time == END_OF_DAY) ? LocalTime.MAX : LocalTime.ofSecondOfDay(time * 60L);
+        return LocalDate.ofEpochDay(date).atTime(timeOfDay);
+    }
+
+    /**
+     * Returns the time as a minute of the day, or {@link #END_OF_DAY} for the very end of the day.
+     * Times are stored to the minute, as that is all a task can be given.
+     */
+    private static short minuteOf(LocalTime time) {
+        return time.equals(LocalTime.MAX) ? END_OF_DAY : (short) (time.toSecondOfDay() / 60);
+    }
+
+    private int[] rowsWhere(IntPredicate condition) {
+        int[] matches = new int[INITIAL_CAPACITY];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (condition.test(row)) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Sorts the positions by the given key. The sort is stable, so positions with equal keys stay in order.
+     */
+    private static <K extends Comparable<? super K>> int[] sortedBy(int[] rows, IntFunction<K> key) {
+        return IntStream.of(rows).boxed()
+                .sorted(Comparator.comparing(key::apply))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Returns the length of the description at the start of a task's text, which for an event is followed by its
+     * start and end.
+     */
+    private int descriptionLength(int row) {
+        if (types[row] != 'E') {
+            return textLengths[row];
+        }
+        int start = textStarts[row];
+        int length = 0;
+        while (arena[start + length] != FIELD_SEPARATOR) {
+            length++;
+        }
+        return length;
+    }
+
+    private void appendText(int row, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (arenaSize + bytes.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+        }
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        textStarts[row] = arenaSize;
+        textLengths[row] = bytes.length;
+        arenaSize += bytes.length;
+        liveTextBytes += bytes.length;
+    }
+
+    private boolean bit(int row) {
+        return (doneBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private void setBit(int row, boolean isSet) {
+        if (isSet) {
+            doneBits[row >>> 6] |= 1L << row;
+        } else {
+            doneBits[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        doneBits = Arrays.copyOf(doneBits, (capacity + 63) / 64);
+        dates = Arrays.copyOf(dates, capacity);
+        times = Arrays.copyOf(times, capacity);
+        endDates = Arrays.copyOf(endDates, capacity);
+        endTimes = Arrays.copyOf(endTimes, capacity);
+        textStarts = Arrays.copyOf(textStarts, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+    }
+
+    /**
+     * Copies the text of the remaining tasks into a new arena, dropping the text of deleted tasks.
+     */
+    private void packArena() {
+        byte[] packed = new byte[Math.max(INITIAL_ARENA_SIZE, liveTextBytes * 2)];
+        int packedSize = 0;
+        for (int row = 0; row < size; row++) {
+            System.arraycopy(arena, textStarts[row], packed, packedSize, textLengths[row]);
+            textStarts[row] = packedSize;
+            packedSize += textLengths[row];
+        }
+        arena = packed;
+        arenaSize = packedSize;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -1,10 +1,28 @@
 package command;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import dar.Metrics;
 import dar.Storage;
+import dar.TaskFileIndex;
 import task.Deadline;
 import task.Event;
 import task.Task;
@@ -16,10 +34,45 @@ import task.ToDo;
  * The task list is loaded from and saved to a `Storage` object, ensuring persistence of tasks across program sessions.
  * <p>
  * The class interprets user commands and interacts with the task list to perform the requested actions.
+ * <p>
+ * A CommandManager can be shared by several front-ends at once. Commands that only read the tasks, such as
+ * list, find and sort, hold a shared read lock and so run in parallel; commands that change the tasks hold
+ * the write lock, so they run one at a time and are never seen half done.
+ * <p>
+ * In lazy mode, the task file is only indexed by line at startup, and a background thread parses the tasks in
+ * parallel and builds the indexes. Until it has finished, "list", "mark", "unmark" and "delete" parse only the
+ * tasks up to the one they need, and new tasks are added after the file's tasks; these changes are applied to the
+ * indexes once they are built. Replies that would need the whole file leave out the number of tasks, and
+ * duplicates of new tasks are not reported. Commands that search or sort the tasks wait for the indexes. This way
+ * the first reply for a large task file comes about as quickly as for a small one.
+ * <p>
+ * In compact mode, the tasks are kept in a {@link ColumnarTaskStore} instead of as one object each, and there are no
+ * indexes, so a very long task list takes a fraction of the memory. Commands then refer to tasks by position only,
+ * and searches and sorts scan the store's columns, so they take time in proportion to the number of tasks.
+ * Compact mode always loads the tasks up front.
  */
 public class CommandManager {
-    private final ArrayList<Task> taskList;
+    /** The number of tasks shown at a time by list and find. */
+    public static final int PAGE_SIZE = 50;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter SLOT_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HHmm");
+
     private final Storage storage;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private TaskList taskList;
+    /** The tasks in compact mode, or null otherwise, in which case the task list and indexes are used. */
+    private final ColumnarTaskStore columnarTasks;
+    private KeywordIndex keywordIndex;
+    private DeadlineIndex deadlineIndex;
+    private EventIndex eventIndex;
+    private HashMap<String, LinkedHashSet<Task>> tasksByDescription;
+    /** Finishes once every task is in the task list and the indexes. */
+    private final CompletableFuture<Void> warmUp;
+    /** The tasks still being loaded in lazy mode, or null once they are all in the task list. */
+    private volatile LazyTasks lazyTasks;
+    private List<Task> tasksBeforeBatch;
+    private List<Boolean> doneBeforeBatch;
+    private boolean isRejected;
 
     /**
      * Constructs a CommandManager instance that manages the list of tasks.
@@ -27,26 +80,111 @@ public class CommandManager {
      * @param storage The storage object used to load and save tasks.
      */
     public CommandManager(Storage storage) {
-        this.taskList = new ArrayList<>(storage.loadTasks()); // Load tasks from storage
+        this(storage, false);
+    }
+
+    /**
+     * Constructs a CommandManager instance that manages the list of tasks, optionally loading them lazily.
+     * <p>
+     * Lazy loading falls back to loading every task up front if the storage cannot index its file,
+     * e.g. because journaled changes have to be replayed first.
+     *
+     * @param storage The storage object used to load and save tasks.
+     * @param isLazy Whether to parse the tasks on a background thread instead of before returning.
+     */
+    public CommandManager(Storage storage, boolean isLazy) {
+        this(storage, isLazy, false);
+    }
+
+    /**
+     * Constructs a CommandManager instance that manages the list of tasks, optionally loading them lazily or
+     * keeping them in compact mode.
+     *
+     * @param storage The storage object used to load and save tasks.
+     * @param isLazy Whether to parse the tasks on a background thread instead of before returning.
+     *     Ignored in compact mode.
+     * @param isCompact Whether to keep the tasks in a columnar store, with no indexes.
+     */
+    public CommandManager(Storage storage, boolean isLazy, boolean isCompact) {
         this.storage = storage;
+        this.columnarTasks = isCompact ? new ColumnarTaskStore() : null;
+        TaskFileIndex file = (isLazy && !isCompact) ? storage.indexTasks() : null;
+        if (file == null) {
+            resetTasks(storage.loadTasks()); // Load tasks from storage
+            this.warmUp = CompletableFuture.completedFuture(null);
+            return;
+        }
+
+        resetTasks(new ArrayList<>());
+        LazyTasks pending = new LazyTasks(file);
+        this.lazyTasks = pending;
+        this.warmUp = CompletableFuture.runAsync(() -> warmUp(pending), runnable -> {
+            Thread thread = new Thread(runnable, "dar-warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        });
     }
 
     /**
-     * Returns string of all tasks in the list in order of its task number.
+     * Returns string of the first page of tasks in the list in order of its task number.
      * <p>
      * If the task list is empty, return a String message indicating no tasks.
-     * <p>
-     * This method does not return anything.
      */
     public String listTasks() {
-        if (taskList.isEmpty()) {
-            return "Nice, your list is empty, you deserve a break! :)\n";
-        }
+        return listTasks(0, PAGE_SIZE);
+    }
 
-        return "Here's your list, better get going!\n"
-               + taskList.stream()
-                   .map(task -> task.getTaskNumber() + ". " + task)
-                   .reduce("", (a, b) -> a + b + "\n");
+    /**
+     * Returns string of a window of tasks in the list in order of its task number.
+     * <p>
+     * Only the tasks in the window are formatted, so the cost does not depend on the length of the list.
+     * If more tasks follow the window, a note on how to see them is added.
+     *
+     * @param offset The number of tasks to skip.
+     * @param limit The maximum number of tasks to show.
+     */
+    public String listTasks(int offset, int limit) {
+        return withReadLockWhileLoading(() -> {
+            if (lazyTasks != null) {
+                return listLoadingTasks(lazyTasks, offset, limit);
+            }
+            if (tasks().isEmpty()) {
+                return "Nice, your list is empty, you deserve a break! :)\n";
+            }
+
+            StringBuilder output = new StringBuilder("Here's your list, better get going!\n");
+            appendPage(output, tasks(), index -> index + 1, offset, limit, "tasks");
+            return output.toString();
+        });
+    }
+
+    /**
+     * Returns whether the list has a task at the given position, counting from 0.
+     * While the tasks are being loaded, this waits only until that position is loaded.
+     */
+    public boolean hasTaskAt(int index) {
+        return withReadLockWhileLoading(() -> (lazyTasks != null)
+                ? lazyTasks.taskAt(index) != null
+                : index < tasks().size());
+    }
+
+    /**
+     * Writes every task in the list, one numbered task per line, to the given sink.
+     * <p>
+     * Unlike {@link #listTasks()}, the output is never held in memory as a whole,
+     * so it can be streamed straight to a file or socket.
+     *
+     * @param out The sink to write to.
+     * @throws IOException If the sink cannot be written to.
+     */
+    public void writeTasks(Appendable out) throws IOException {
+        awaitWarmUp();
+        lock.readLock().lock();
+        try {
+            writeNumberedTasks(out, tasks(), index -> index + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -57,20 +195,21 @@ public class CommandManager {
      * @param input The task number as a string
      */
     public String markTask(String input) {
-        try {
-            int taskNumber = Integer.parseInt(input);
-            Task task = taskList.get(taskNumber - 1);
-            task.setMark();
-            storage.saveTasks(taskList);
+        return withWriteLock(() -> {
+            try {
+                int taskNumber = Integer.parseInt(input);
+                Task task = setDone(taskNumber - 1, true);
+                storage.recordMark(tasks(), taskNumber);
 
-            return "Good job, one less task to worry about:\n" + task + "\n";
-        } catch (NumberFormatException e) {
-            return "Invalid input. Please enter a valid task number to mark.";
-        } catch (IndexOutOfBoundsException e) {
-            return "Invalid task number. Please choose a valid task.";
-        } catch (Exception e) {
-            return "An error occurred while marking the task.";
-        }
+                return "Good job, one less task to worry about:\n" + task + "\n";
+            } catch (NumberFormatException e) {
+                return reject("Invalid input. Please enter a valid task number to mark.");
+            } catch (IndexOutOfBoundsException e) {
+                return reject("Invalid task number. Please choose a valid task.");
+            } catch (Exception e) {
+                return reject("An error occurred while marking the task.");
+            }
+        });
     }
 
     /**
@@ -81,20 +220,21 @@ public class CommandManager {
      * @param input The task number as a string
      */
     public String unmarkTask(String input) {
-        try {
-            int taskNumber = Integer.parseInt(input);
-            Task task = taskList.get(taskNumber - 1);
-            task.setUnmark();
-            storage.saveTasks(taskList);
+        return withWriteLock(() -> {
+            try {
+                int taskNumber = Integer.parseInt(input);
+                Task task = setDone(taskNumber - 1, false);
+                storage.recordUnmark(tasks(), taskNumber);
 
-            return "Oh okay, this task has been unmarked:\n" + task + "\n";
-        } catch (NumberFormatException e) {
-            return "Invalid input. Please enter a valid task number to unmark.";
-        } catch (IndexOutOfBoundsException e) {
-            return "Invalid task number. Please choose a valid task.";
-        } catch (Exception e) {
-            return "An error occurred while unmarking the task.";
-        }
+                return "Oh okay, this task has been unmarked:\n" + task + "\n";
+            } catch (NumberFormatException e) {
+                return reject("Invalid input. Please enter a valid task number to unmark.");
+            } catch (IndexOutOfBoundsException e) {
+                return reject("Invalid task number. Please choose a valid task.");
+            } catch (Exception e) {
+                return reject("An error occurred while unmarking the task.");
+            }
+        });
     }
 
     /**
@@ -105,17 +245,14 @@ public class CommandManager {
      * @param description The description of the ToDo task.
      */
     public String addTodo(String description) {
-        if (description.trim().isEmpty()) {
-            return "The description of a todo task cannot be empty :<\n";
-        }
-        Task task = new ToDo(description);
-        taskList.add(task);
-        storage.saveTasks(taskList);
-        if (isDuplicate(task)) {
-            return "This task has duplicates, delete tasks using 'delete (task no.)'\n\n" + findDuplicates(task);
-        } else {
-            return "Got it! I've added this todo:\n" + Task.getTotalTasks() + ". " + task + "\n";
-        }
+        return withWriteLock(() -> {
+            if (description.trim().isEmpty()) {
+                return reject("The description of a todo task cannot be empty :<\n");
+            }
+            Task task = new ToDo(description);
+            addToList(task);
+            return reportAdded("todo", task);
+        });
     }
 
     /**
@@ -126,22 +263,19 @@ public class CommandManager {
      * @return A success message or an error message if the input is invalid.
      */
     public String addDeadline(String description) {
-        if (description.trim().isEmpty()) {
-            return "The description of a deadline task cannot be empty :<\n";
-        }
+        return withWriteLock(() -> {
+            if (description.trim().isEmpty()) {
+                return reject("The description of a deadline task cannot be empty :<\n");
+            }
 
-        try {
-            Task task = new Deadline(description);
-            taskList.add(task);
-            storage.saveTasks(taskList);
-            if (isDuplicate(task)) {
-                return "This task has duplicates, delete tasks using 'delete (task no.)'\n\n" + findDuplicates(task);
-            } else {
-                return "Got it! I've added this deadline:\n" + Task.getTotalTasks() + ". " + task + "\n";
+            try {
+                Task task = Deadline.fromInput(description);
+                addToList(task);
+                return reportAdded("deadline", task);
+            } catch (IllegalArgumentException e) {
+                return reject(e.getMessage());
             }
-        } catch (IllegalArgumentException e) {
-            return e.getMessage();
-        }
+        });
     }
 
     /**
@@ -153,70 +287,139 @@ public class CommandManager {
      * @param description The description of the Event task, including start and end time.
      */
     public String addEvent(String description) {
-        if (description.trim().isEmpty()) {
-            return "The description of an event task cannot be empty :<\n";
-        }
-        Task task = new Event(description);
-        taskList.add(task);
-        storage.saveTasks(taskList);
-        if (isDuplicate(task)) {
-            return "This task has duplicates, delete tasks using 'delete (task no.)'\n\n" + findDuplicates(task);
-        } else {
-            return "Got it! I've added this event:\n" + Task.getTotalTasks() + ". " + task + "\n";
-        }
+        return withWriteLock(() -> {
+            if (description.trim().isEmpty()) {
+                return reject("The description of an event task cannot be empty :<\n");
+            }
+            Task task = new Event(description);
+            addToList(task);
+            return reportAdded("event", task);
+        });
     }
 
     /**
-     * Deletes a task from the task list by its task number and updates the remaining tasks.
+     * Deletes a task from the task list by its task number.
+     * <p>
+     * The tasks after it move up by one number, without having to touch each of them.
      * <p>
      * If the input task number is invalid (non-numeric or out of range), an error message is displayed.
      *
      * @param input The task number as a string.
      */
     public String deleteTask(String input) {
-        try {
-            int taskNumber = Integer.parseInt(input);
-            Task task = taskList.remove(taskNumber - 1);
-            task.decrementTotalTasksCount();
+        return withWriteLock(() -> {
+            try {
+                int taskNumber = Integer.parseInt(input);
+                Task task = tasks().remove(taskNumber - 1);
+                if (lazyTasks == null && columnarTasks == null) {
+                    unindex(task); // Otherwise it is left out when the indexes are built, or there are none
+                }
+                storage.recordDelete(tasks(), taskNumber);
 
-            // Update remaining task numbers
-            for (int i = 0; i < taskList.size(); i++) {
-                taskList.get(i).updateTaskNumber(i + 1);
+                int remaining = (lazyTasks == null) ? tasks().size() : lazyTasks.knownSize();
+                return "Roger that, this task has been removed:\n" + task
+                    + (remaining < 0 ? "\n" : "\nNow you have " + remaining + " task(s) in your list.\n");
+
+            } catch (NumberFormatException e) {
+                return reject("Invalid input. Please enter a valid task number for deletion.");
+            } catch (IndexOutOfBoundsException e) {
+                return reject("Invalid task number. Please choose a valid task.");
+            } catch (Exception e) {
+                return reject("An error occurred while deleting the task.");
             }
+        });
+    }
 
-            storage.saveTasks(taskList);
+    /**
+     * Returns the task list itself. It may only be read while no other thread is running commands.
+     * In compact mode, the tasks it returns are copies, so changing them does not change the list.
+     */
+    public List<Task> getTaskList() {
+        awaitWarmUp();
+        return tasks();
+    }
 
-            return "Roger that, this task has been removed:\n" + task
-                + "\nNow you have " + Task.getTotalTasks() + " task(s) in your list.\n";
+    /**
+     * Returns the metrics of the storage, which every front-end sharing this command manager adds to.
+     */
+    public Metrics getMetrics() {
+        return storage.getMetrics();
+    }
 
-        } catch (NumberFormatException e) {
-            return "Invalid input. Please enter a valid task number for deletion.";
-        } catch (IndexOutOfBoundsException e) {
-            return "Invalid task number. Please choose a valid task.";
-        } catch (Exception e) {
-            return "An error occurred while deleting the task.";
+    /**
+     * Saves a checkpoint of the current tasks to storage, while no command is changing them.
+     */
+    public void checkpoint() {
+        awaitWarmUp();
+        lock.writeLock().lock();
+        try {
+            storage.checkpoint(tasks());
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
-    public ArrayList<Task> getTaskList() {
-        return taskList;
+    /**
+     * Saves a checkpoint of the current tasks and closes the storage, when the program exits.
+     * Only the owner of the storage may call this, after every front-end sharing the tasks has stopped.
+     */
+    public void close() {
+        awaitWarmUp();
+        lock.writeLock().lock();
+        try {
+            storage.checkpoint(tasks());
+            storage.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Finds and displays tasks that contain the specified keyword.
+     * Finds and displays the first page of tasks that contain the specified keyword.
      * <p>
      * @param matchWord The keyword to search for in task descriptions.
      */
     public String findTasks(String matchWord) {
-        String header = "You looking for these?\n"
-                       + "(Numbers represent that task's number, for deleting and marking etc.)\n\n";
+        return findTasks(matchWord, 0, PAGE_SIZE);
+    }
 
-        String matches = taskList.stream()
-            .filter(task -> task.getDescription().toLowerCase().contains(matchWord.toLowerCase()))
-            .map(task -> task.getTaskNumber() + ". " + task)
-            .reduce("", (a, b) -> a + b + "\n");
+    /**
+     * Finds and displays a window of the tasks that contain the specified keyword.
+     * <p>
+     * Tasks are looked up in the keyword index rather than by scanning the whole list,
+     * and only the matches in the window are formatted.
+     *
+     * @param matchWord The keyword to search for in task descriptions.
+     * @param offset The number of matches to skip.
+     * @param limit The maximum number of matches to show.
+     */
+    public String findTasks(String matchWord, int offset, int limit) {
+        return withReadLock(() -> {
+            String header = "You looking for these?\n"
+                           + "(Numbers represent that task's number, for deleting and marking etc.)\n\n";
+
+            String keyword = matchWord.toLowerCase();
+            List<Task> found;
+            IntUnaryOperator numberAt;
+            if (keyword.isEmpty()) {
+                found = tasks();
+                numberAt = index -> index + 1;
+            } else if (columnarTasks != null) {
+                int[] matches = columnarTasks.findMatches(keyword);
+                found = columnarRows(matches);
+                numberAt = index -> matches[index] + 1;
+            } else {
+                found = keywordIndex.find(keyword);
+                numberAt = index -> taskList.numberOf(found.get(index));
+            }
+            if (found.isEmpty()) {
+                return header + "You have no matching tasks :(\n";
+            }
 
-        return header + (matches.isEmpty() ? "You have no matching tasks :(\n" : matches);
+            StringBuilder output = new StringBuilder(header);
+            appendPage(output, found, numberAt, offset, limit, "matches");
+            return output.toString();
+        });
     }
 
     /**
@@ -226,23 +429,27 @@ public class CommandManager {
      * @return A string listing all duplicate tasks, including their task numbers.
      */
     public String findDuplicates(Task newTask) {
-        List<Task> duplicates = new ArrayList<>();
-
-        for (Task task : taskList) {
-            if (task.getDescription().equals(newTask.getDescription())) {
-                duplicates.add(task);
+        return withReadLock(() -> {
+            List<Task> duplicates;
+            IntUnaryOperator numberAt;
+            if (columnarTasks != null) {
+                int[] rows = columnarTasks.findDescription(newTask.getDescription());
+                duplicates = columnarRows(rows);
+                numberAt = index -> rows[index] + 1;
+            } else {
+                duplicates = new ArrayList<>(tasksByDescription.getOrDefault(newTask.getDescription(),
+                        new LinkedHashSet<>()));
+                numberAt = index -> taskList.numberOf(duplicates.get(index));
             }
-        }
 
-        if (duplicates.isEmpty()) {
-            return "No duplicate tasks found.";
-        }
+            if (duplicates.isEmpty()) {
+                return "No duplicate tasks found.";
+            }
 
-        StringBuilder result = new StringBuilder("Your duplicate tasks:\n");
-        for (Task task : duplicates) {
-            result.append(task.getTaskNumber()).append(". ").append(task.toString()).append("\n");
-        }
-        return result.toString();
+            StringBuilder result = new StringBuilder("Your duplicate tasks:\n");
+            appendTasks(result, duplicates, numberAt);
+            return result.toString();
+        });
     }
 
 
@@ -253,34 +460,572 @@ public class CommandManager {
      * @return {@code true} if there are multiple tasks with the same description, {@code false} otherwise.
      */
     public Boolean isDuplicate(Task newTask) {
-        int count = 0;
-        for (Task task : taskList) {
-            if (task.getDescription().equals(newTask.getDescription())) {
-                count++;
+        return withReadLock(() -> {
+            if (columnarTasks != null) {
+                return columnarTasks.findDescription(newTask.getDescription()).length > 1;
+            }
+            Set<Task> sameDescription = tasksByDescription.get(newTask.getDescription());
+            return sameDescription != null && sameDescription.size() > 1;
+        });
+    }
+
+    /**
+     * Starts running commands as one batch. Until the batch is committed or aborted, other threads cannot run
+     * commands, and changes are not written to storage one by one.
+     * <p>
+     * Every call must be followed by {@link #commitBatch()} or {@link #abortBatch()} on the same thread.
+     *
+     * @param canAbort Whether to remember the tasks as they are now, so the batch can be aborted.
+     */
+    public void beginBatch(boolean canAbort) {
+        awaitWarmUp();
+        lock.writeLock().lock();
+        isRejected = false;
+        if (canAbort) {
+            tasksBeforeBatch = new ArrayList<>(tasks());
+            doneBeforeBatch = tasksBeforeBatch.stream().map(Task::isDone).collect(Collectors.toList());
+        }
+        storage.beginBatch();
+    }
+
+    /**
+     * Returns whether a command that changes tasks has been rejected since the batch began,
+     * e.g. because of an invalid task number.
+     */
+    public boolean isBatchRejected() {
+        return isRejected;
+    }
+
+    /**
+     * Ends the batch, writing all of its changes to storage at once.
+     */
+    public void commitBatch() {
+        try {
+            storage.commitBatch(tasks());
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * Ends the batch, undoing all of its changes. Nothing is written to storage.
+     */
+    public void abortBatch() {
+        try {
+            assert tasksBeforeBatch != null : "The batch was begun without being able to abort";
+            if (columnarTasks == null) {
+                for (Task task : taskList) {
+                    unindex(task);
+                }
+            }
+            tasks().clear();
+            for (int i = 0; i < tasksBeforeBatch.size(); i++) {
+                Task task = tasksBeforeBatch.get(i);
+                if (doneBeforeBatch.get(i)) {
+                    task.setMark();
+                } else {
+                    task.setUnmark();
+                }
+                addAndIndex(task);
+            }
+            storage.abortBatch();
+        } finally {
+            endBatch();
+        }
+    }
+
+    private void endBatch() {
+        tasksBeforeBatch = null;
+        doneBeforeBatch = null;
+        lock.writeLock().unlock();
+    }
+
+    /**
+     * Notes that a command was rejected, so a batch can tell that it did not fully succeed.
+     *
+     * @param message The message explaining why the command was rejected.
+     * @return The message.
+     */
+    private String reject(String message) {
+        isRejected = true;
+        return message;
+    }
+
+    /**
+     * Runs the command under the read lock, once every task has been loaded. A thread that holds the write lock
+     * does not wait, as the tasks cannot finish loading until it lets go of it.
+     */
+    private <T> T withReadLock(Supplier<T> command) {
+        if (!lock.isWriteLockedByCurrentThread()) {
+            awaitWarmUp();
+        }
+        return withReadLockWhileLoading(command);
+    }
+
+    /**
+     * Runs the command under the read lock, even if the tasks are still being loaded.
+     */
+    private <T> T withReadLockWhileLoading(Supplier<T> command) {
+        lock.readLock().lock();
+        try {
+            return command.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the command under the write lock, even if the tasks are still being loaded.
+     * The command then changes the tasks through {@link #tasks()}.
+     */
+    private <T> T withWriteLock(Supplier<T> command) {
+        lock.writeLock().lock();
+        try {
+            return command.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the tasks being loaded, if they are, or the compact store or task list otherwise.
+     * Must be called while holding the lock.
+     */
+    private List<Task> tasks() {
+        if (lazyTasks != null) {
+            return lazyTasks;
+        }
+        return (columnarTasks != null) ? columnarTasks : taskList;
+    }
+
+    /**
+     * Marks or unmarks the task at the given position.
+     *
+     * @return The task, as it is now.
+     * @throws IndexOutOfBoundsException If there is no task at that position.
+     */
+    private Task setDone(int index, boolean isDone) {
+        if (columnarTasks != null) {
+            columnarTasks.setDone(index, isDone);
+            return columnarTasks.get(index);
+        }
+        Task task = tasks().get(index);
+        if (isDone) {
+            task.setMark();
+        } else {
+            task.setUnmark();
+        }
+        return task;
+    }
+
+    /**
+     * Returns a view of the compact store's tasks at the given positions, built as they are read.
+     */
+    private List<Task> columnarRows(int[] rows) {
+        return new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                return columnarTasks.get(rows[index]);
+            }
+
+            @Override
+            public int size() {
+                return rows.length;
+            }
+        };
+    }
+
+    /**
+     * Parses every task still being loaded, then moves them into the task list and the indexes in file order,
+     * skipping lines that are not valid tasks. The changes commands made in the meantime are then applied under
+     * the write lock. Nothing else touches the list or the indexes until this has finished.
+     * <p>
+     * If anything goes wrong, the tasks are loaded again from storage, which by then holds those changes too.
+     */
+    private void warmUp(LazyTasks pending) {
+        long start = System.nanoTime();
+        try {
+            pending.parseAll();
+            for (int line = 0; line < pending.lineCount(); line++) {
+                Task task = pending.onLine(line);
+                if (task != null) {
+                    taskList.add(task);
+                    index(task);
+                }
             }
+
+            lock.writeLock().lock();
+            try {
+                pending.replayChanges(this::addAndIndex, task -> {
+                    taskList.remove(task);
+                    unindex(task);
+                });
+                lazyTasks = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error loading tasks in the background, loading them again: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                resetTasks(storage.loadTasks());
+            } finally {
+                lazyTasks = null; // Commands must not wait for a warm-up that will never finish
+                lock.writeLock().unlock();
+            }
+            return;
         }
-        if (count > 1) {
-            return true;
+        storage.getMetrics().recordLoad(taskList.size(), System.nanoTime() - start);
+    }
+
+    /**
+     * Waits until every task has been loaded, if they are being loaded lazily.
+     */
+    private void awaitWarmUp() {
+        if (lazyTasks != null) {
+            warmUp.join();
         }
-        return false;
     }
 
     /**
-     * Sorts all deadline tasks in chronological order based on their date and time.
+     * Replaces the task list with the given tasks and rebuilds the indexes from them.
+     * In compact mode, the tasks are copied into the store instead.
+     */
+    private void resetTasks(List<Task> tasks) {
+        if (columnarTasks != null) {
+            columnarTasks.clear();
+            columnarTasks.addAll(tasks);
+            return;
+        }
+        taskList = new TaskList();
+        keywordIndex = new KeywordIndex();
+        deadlineIndex = new DeadlineIndex();
+        eventIndex = new EventIndex();
+        tasksByDescription = new HashMap<>();
+        for (Task task : tasks) {
+            addAndIndex(task);
+        }
+    }
+
+    /**
+     * Returns a page of the tasks being loaded, parsing only the tasks up to the end of the page.
+     * The total is only shown once every line has been parsed.
+     */
+    private String listLoadingTasks(LazyTasks pending, int offset, int limit) {
+        assert limit > 0 : "Page size must be positive";
+        if (pending.taskAt(0) == null) {
+            return "Nice, your list is empty, you deserve a break! :)\n";
+        }
+
+        StringBuilder output = new StringBuilder("Here's your list, better get going!\n");
+        int from = Math.max(offset, 0);
+        int to = from;
+        for (Task task = pending.taskAt(to); task != null && to < from + limit; task = pending.taskAt(to)) {
+            output.append(to + 1).append(". ").append(task.toString()).append('\n');
+            to++;
+        }
+        if (to == from) {
+            return output.append("There are no more tasks to show.\n").toString();
+        }
+
+        boolean hasMore = pending.taskAt(to) != null;
+        if (from > 0 || hasMore) {
+            int total = pending.knownSize();
+            output.append("(Showing tasks ").append(from + 1).append('-').append(to)
+                    .append(total < 0 ? "" : " of " + total);
+            output.append(hasMore ? ", type 'next' for more.)\n" : ".)\n");
+        }
+        return output.toString();
+    }
+
+    /**
+     * Appends a new task to the list, adds it to the indexes and records the addition in storage.
+     * While the tasks are being loaded, it is only added to the indexes once they are built.
+     *
+     * @param task The task to add.
+     */
+    private void addToList(Task task) {
+        if (lazyTasks != null) {
+            lazyTasks.add(task);
+        } else {
+            addAndIndex(task);
+        }
+        storage.recordAdd(tasks(), task);
+    }
+
+    private void addAndIndex(Task task) {
+        if (columnarTasks != null) {
+            columnarTasks.add(task);
+            return;
+        }
+        taskList.add(task);
+        index(task);
+    }
+
+    /**
+     * Returns the reply to adding a task, listing its duplicates if it has any.
+     * While the tasks are being loaded, duplicates are not looked for, and the task number is left out if the
+     * file has not been fully parsed yet.
+     *
+     * @param type What the task is called in the reply, e.g. "todo".
+     * @param task The task that was added.
+     */
+    private String reportAdded(String type, Task task) {
+        int number;
+        if (lazyTasks != null) {
+            number = lazyTasks.knownSize();
+        } else if (isDuplicate(task)) {
+            return "This task has duplicates, delete tasks using 'delete (task no.)'\n\n" + findDuplicates(task);
+        } else {
+            number = (columnarTasks != null) ? columnarTasks.size() : taskList.numberOf(task);
+        }
+        return "Got it! I've added this " + type + ":\n" + (number < 0 ? "" : number + ". ") + task + "\n";
+    }
+
+    /**
+     * Appends the tasks in the window, followed by a note if more tasks follow it.
+     *
+     * @param numberAt Gives the task number of the task at each position of the tasks.
+     * @param noun What the tasks are called in the note, e.g. "tasks" or "matches".
+     */
+    private void appendPage(StringBuilder output, List<Task> tasks, IntUnaryOperator numberAt, int offset, int limit,
+            String noun) {
+        assert limit > 0 : "Page size must be positive";
+        int from = Math.max(offset, 0);
+        if (from >= tasks.size()) {
+            output.append("There are no more ").append(noun).append(" to show.\n");
+            return;
+        }
+
+        int to = Math.min(tasks.size(), from + limit);
+        appendTasks(output, tasks.subList(from, to), index -> numberAt.applyAsInt(from + index));
+        if (from > 0 || to < tasks.size()) {
+            output.append("(Showing ").append(noun).append(' ').append(from + 1).append('-').append(to)
+                    .append(" of ").append(tasks.size());
+            output.append(to < tasks.size() ? ", type 'next' for more.)\n" : ".)\n");
+        }
+    }
+
+    /**
+     * Appends the tasks, one numbered task per line, to the builder.
+     */
+    private void appendTasks(StringBuilder output, List<Task> tasks, IntUnaryOperator numberAt) {
+        try {
+            writeNumberedTasks(output, tasks, numberAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+    }
+
+    private void writeNumberedTasks(Appendable out, List<Task> tasks, IntUnaryOperator numberAt) throws IOException {
+        int index = 0;
+        for (Task task : tasks) {
+            out.append(Integer.toString(numberAt.applyAsInt(index++))).append(". ").append(task.toString())
+                    .append('\n');
+        }
+    }
+
+    private void index(Task task) {
+        keywordIndex.add(task);
+        if (task instanceof Deadline) {
+            deadlineIndex.add((Deadline) task);
+        } else if (task instanceof Event) {
+            eventIndex.add((Event) task);
+        }
+        tasksByDescription.computeIfAbsent(task.getDescription(), description -> new LinkedHashSet<>()).add(task);
+    }
+
+    private void unindex(Task task) {
+        keywordIndex.remove(task);
+        if (task instanceof Deadline) {
+            deadlineIndex.remove((Deadline) task);
+        } else if (task instanceof Event) {
+            eventIndex.remove((Event) task);
+        }
+        Set<Task> sameDescription = tasksByDescription.get(task.getDescription());
+        sameDescription.remove(task);
+        if (sameDescription.isEmpty()) {
+            tasksByDescription.remove(task.getDescription());
+        }
+    }
+
+    /**
+     * Lists all deadline tasks in chronological order based on their date and time.
      * <p>
+     * The deadlines are read from the deadline index, which is always kept sorted.
+     * Deadlines with only a time are listed last.
+     *
      * @return A formatted string listing all deadlines in chronological order with their task numbers
      */
     public String sortDeadline() {
-        List<Deadline> sortedDeadlines = taskList.stream()
-            .filter(task -> task instanceof Deadline)
-            .map(task -> (Deadline) task)
-            .sorted(Comparator.comparing(Deadline::getDeadlineDate).thenComparing(Deadline::getDeadlineTime))
-            .toList();
-
-        return sortedDeadlines.isEmpty()
-            ? "No deadlines found."
-            : "Your deadlines in chronological order:\n" + sortedDeadlines.stream()
-                .map(deadline -> deadline.getTaskNumber() + ". " + deadline)
+        return withReadLock(() -> (columnarTasks != null)
+                ? formatDeadlines("Your deadlines in chronological order:\n", columnarTasks.deadlinesInOrder())
+                : formatDeadlines("Your deadlines in chronological order:\n", deadlineIndex.inOrder()));
+    }
+
+    /**
+     * Lists the deadlines due in a range of days, in chronological order.
+     * <p>
+     * The range is given as "before DD/MM/YYYY", "between DD/MM/YYYY and DD/MM/YYYY" (both days included)
+     * or "within N" for the deadlines due from now until the end of the day N days from today.
+     *
+     * @param input The range of days.
+     * @return A formatted string listing the matching deadlines, or an error message if the range is invalid.
+     */
+    public String findDue(String input) {
+        return withReadLock(() -> {
+            String[] words = input.trim().split("\\s+");
+            try {
+                if (words.length == 2 && words[0].equalsIgnoreCase("before")) {
+                    LocalDate day = LocalDate.parse(words[1], DATE_FORMATTER);
+                    return formatDeadlinesDue("Deadlines due before " + words[1] + ":\n", null, day.atStartOfDay());
+                } else if (words.length == 4 && words[0].equalsIgnoreCase("between")
+                        && words[2].equalsIgnoreCase("and")) {
+                    LocalDate from = LocalDate.parse(words[1], DATE_FORMATTER);
+                    LocalDate to = LocalDate.parse(words[3], DATE_FORMATTER);
+                    return formatDeadlinesDue("Deadlines due between " + words[1] + " and " + words[3] + ":\n",
+                            from.atStartOfDay(), to.atTime(LocalTime.MAX));
+                } else if (words.length == 2 && words[0].equalsIgnoreCase("within")) {
+                    int days = Integer.parseInt(words[1]);
+                    LocalDateTime now = LocalDateTime.now();
+                    return formatDeadlinesDue("Deadlines due within " + days + " day(s):\n",
+                            now, now.toLocalDate().plusDays(days).atTime(LocalTime.MAX));
+                }
+            } catch (DateTimeParseException | NumberFormatException e) {
+                // Fall through to the usage message
+            }
+            return "Try 'due before DD/MM/YYYY', 'due between DD/MM/YYYY and DD/MM/YYYY' or 'due within (days)'.\n";
+        });
+    }
+
+    /**
+     * Lists the deadlines whose date and time have already passed, in chronological order.
+     *
+     * @return A formatted string listing the overdue deadlines with their task numbers.
+     */
+    public String listOverdue() {
+        return withReadLock(() ->
+                formatDeadlinesDue("These deadlines have passed:\n", null, LocalDateTime.now()));
+    }
+
+    /**
+     * Lists the events that take place on the given day, ordered by when they start.
+     * <p>
+     * The input is given as "DD/MM/YYYY". Only events whose start and end are dates and times are considered.
+     *
+     * @param input The day.
+     * @return A formatted string listing the events with their task numbers, or an error message if the day
+     *     is invalid.
+     */
+    public String findEventsOn(String input) {
+        return withReadLock(() -> {
+            try {
+                LocalDate day = LocalDate.parse(input.trim(), DATE_FORMATTER);
+                return formatEventsOverlapping("Your events on " + input.trim() + ":\n",
+                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            } catch (DateTimeParseException e) {
+                return "Try 'on DD/MM/YYYY'.\n";
+            }
+        });
+    }
+
+    /**
+     * Lists the events that overlap the given slot, ordered by when they start.
+     * <p>
+     * The slot is given as "DD/MM/YYYY HHMM to DD/MM/YYYY HHMM". An event that ends exactly when the slot
+     * starts, or starts exactly when it ends, does not overlap it.
+     *
+     * @param input The slot.
+     * @return A formatted string listing the events with their task numbers, or an error message if the slot
+     *     is invalid.
+     */
+    public String findOverlappingEvents(String input) {
+        return withReadLock(() -> {
+            String[] bounds = input.split("\\s+to\\s+");
+            LocalDateTime from = (bounds.length == 2) ? Event.parseMoment(bounds[0]) : null;
+            LocalDateTime to = (bounds.length == 2) ? Event.parseMoment(bounds[1]) : null;
+            if (from == null || to == null || !from.isBefore(to)) {
+                return "Try 'overlap DD/MM/YYYY HHMM to DD/MM/YYYY HHMM'.\n";
+            }
+            return formatEventsOverlapping("Events overlapping " + bounds[0].trim() + " to " + bounds[1].trim()
+                    + ":\n", from, to);
+        });
+    }
+
+    /**
+     * Finds the earliest slot of the given number of hours that no event overlaps.
+     * <p>
+     * The input is given as "N" to search from now, or "N from DD/MM/YYYY HHMM" to search from a given moment.
+     *
+     * @param input The number of hours, optionally followed by where to start searching.
+     * @return A message with the start and end of the free slot, or an error message if the input is invalid.
+     */
+    public String findFreeSlot(String input) {
+        return withReadLock(() -> {
+            String[] parts = input.trim().split("\\s+from\\s+", 2);
+            try {
+                int hours = Integer.parseInt(parts[0].trim());
+                LocalDateTime after = (parts.length == 2) ? Event.parseMoment(parts[1]) : LocalDateTime.now();
+                if (hours > 0 && after != null) {
+                    LocalDateTime start = (columnarTasks != null)
+                            ? columnarTasks.findFreeSlot(after, Duration.ofHours(hours))
+                            : eventIndex.findFreeSlot(after, Duration.ofHours(hours));
+                    return "You're free from " + start.format(SLOT_FORMATTER)
+                            + " to " + start.plusHours(hours).format(SLOT_FORMATTER) + ".\n";
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the usage message
+            }
+            return "Try 'free (hours)' or 'free (hours) from DD/MM/YYYY HHMM'.\n";
+        });
+    }
+
+    /**
+     * Formats the events that overlap the slot [from, to), from the event index or the compact store.
+     */
+    private String formatEventsOverlapping(String header, LocalDateTime from, LocalDateTime to) {
+        if (columnarTasks != null) {
+            int[] rows = columnarTasks.eventsOverlapping(from, to);
+            return formatTasks(header, "No events found.", columnarRows(rows), index -> rows[index] + 1);
+        }
+        List<Event> events = eventIndex.overlapping(from, to);
+        return formatTasks(header, "No events found.", events, index -> taskList.numberOf(events.get(index)));
+    }
+
+    /**
+     * Formats the dated deadlines due between the two moments, both included, or, if the first one is null,
+     * those due before the second one. They are read from the deadline index or the compact store.
+     */
+    private String formatDeadlinesDue(String header, LocalDateTime from, LocalDateTime to) {
+        if (columnarTasks != null) {
+            return formatDeadlines(header, (from == null)
+                    ? columnarTasks.deadlinesDueBefore(to)
+                    : columnarTasks.deadlinesDueBetween(from, to));
+        }
+        return formatDeadlines(header, (from == null)
+                ? deadlineIndex.dueBefore(to)
+                : deadlineIndex.dueBetween(from, to));
+    }
+
+    private String formatDeadlines(String header, List<Deadline> deadlines) {
+        return formatTasks(header, "No deadlines found.", deadlines,
+                index -> taskList.numberOf(deadlines.get(index)));
+    }
+
+    private String formatDeadlines(String header, int[] rows) {
+        return formatTasks(header, "No deadlines found.", columnarRows(rows), index -> rows[index] + 1);
+    }
+
+    /**
+     * Formats the tasks one per line with their task numbers, or returns the given message if there are none.
+     *
+     * @param numberAt Gives the task number of the task at each position of the tasks.
+     */
+    private String formatTasks(String header, String none, List<? extends Task> tasks, IntUnaryOperator numberAt) {
+        return tasks.isEmpty()
+            ? none
+            : header + IntStream.range(0, tasks.size())
+                .mapToObj(index -> numberAt.applyAsInt(index) + ". " + tasks.get(index))
                 .collect(Collectors.joining("\n"));
     }
 }
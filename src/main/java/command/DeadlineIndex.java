@@ -0,0 +1,110 @@
+package command;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import task.Deadline;
+
+/**
+ * The DeadlineIndex keeps deadlines sorted by when they are due, so they can be listed in order and
+ * looked up by date range in O(log n + k) without sorting the task list.
+ * <p>
+ * A deadline with only a date is due at the end of that day. Deadlines with only a time have no day to
+ * compare against, so they are kept apart and listed after the dated ones, ordered by time.
+ * Deadlines due at the same moment are kept in the order they were added.
+ */
+public class DeadlineIndex {
+    private final TreeMap<LocalDateTime, LinkedHashSet<Deadline>> datedDeadlines = new TreeMap<>();
+    private final TreeMap<LocalTime, LinkedHashSet<Deadline>> undatedDeadlines = new TreeMap<>();
+
+    /**
+     * Adds a deadline to the index.
+     *
+     * @param deadline The deadline to add.
+     */
+    public void add(Deadline deadline) {
+        if (deadline.getDueDate() != null) {
+            datedDeadlines.computeIfAbsent(dueAt(deadline), key -> new LinkedHashSet<>()).add(deadline);
+        } else {
+            undatedDeadlines.computeIfAbsent(deadline.getDueTime(), key -> new LinkedHashSet<>()).add(deadline);
+        }
+    }
+
+    /**
+     * Removes a deadline from the index.
+     *
+     * @param deadline The deadline to remove.
+     */
+    public void remove(Deadline deadline) {
+        if (deadline.getDueDate() != null) {
+            removeFrom(datedDeadlines, dueAt(deadline), deadline);
+        } else {
+            removeFrom(undatedDeadlines, deadline.getDueTime(), deadline);
+        }
+    }
+
+    /**
+     * Returns all deadlines in chronological order, followed by those with only a time.
+     */
+    public List<Deadline> inOrder() {
+        List<Deadline> deadlines = flatten(datedDeadlines.values());
+        deadlines.addAll(flatten(undatedDeadlines.values()));
+        return deadlines;
+    }
+
+    /**
+     * Returns the dated deadlines due between the two moments, both included, in chronological order.
+     *
+     * @param from The earliest due date and time to include.
+     * @param to The latest due date and time to include.
+     */
+    public List<Deadline> dueBetween(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            return new ArrayList<>();
+        }
+        return flatten(datedDeadlines.subMap(from, true, to, true).values());
+    }
+
+    /**
+     * Returns the dated deadlines due before the given moment, in chronological order.
+     *
+     * @param moment The moment the deadlines must be due before.
+     */
+    public List<Deadline> dueBefore(LocalDateTime moment) {
+        return flatten(datedDeadlines.headMap(moment, false).values());
+    }
+
+    /**
+     * Returns the moment a dated deadline is due; the end of the day if it has no time.
+     */
+    private static LocalDateTime dueAt(Deadline deadline) {
+        LocalDate date = deadline.getDueDate();
+        LocalTime time = deadline.getDueTime();
+        return date.atTime(time != null ? time : LocalTime.MAX);
+    }
+
+    private static <K> void removeFrom(NavigableMap<K, LinkedHashSet<Deadline>> map, K key, Deadline deadline) {
+        LinkedHashSet<Deadline> deadlines = map.get(key);
+        if (deadlines == null) {
+            return;
+        }
+        deadlines.remove(deadline);
+        if (deadlines.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    private static List<Deadline> flatten(Collection<LinkedHashSet<Deadline>> groups) {
+        List<Deadline> deadlines = new ArrayList<>();
+        for (LinkedHashSet<Deadline> group : groups) {
+            deadlines.addAll(group);
+        }
+        return deadlines;
+    }
+}
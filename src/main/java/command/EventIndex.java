@@ -0,0 +1,211 @@
+package command;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import task.Event;
+
+/**
+ * The EventIndex is an interval tree over the events that have a parsed start and end.
+ * <p>
+ * Events are kept in a treap (a randomly balanced binary search tree) ordered by start, where each node also
+ * records the latest end in its subtree. A search can then skip every subtree that ends before the slot being
+ * asked about, so finding the k events that overlap a slot takes O(log n + k) expected time.
+ * <p>
+ * Events are treated as half-open ranges [start, end): an event ending at 1400 does not overlap one starting
+ * at 1400.
+ */
+public class EventIndex {
+    private final IdentityHashMap<Event, Node> nodes = new IdentityHashMap<>();
+    private final Random random = new Random();
+    private Node root;
+    private long nextSequence;
+
+    /**
+     * A tree node holding one event. Events starting at the same moment are ordered by when they were added.
+     */
+    private static class Node {
+        private final Event event;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final long sequence;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(Event event, long sequence, int priority) {
+            this.event = event;
+            this.start = event.getStart();
+            this.end = event.getEnd();
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        int compareTo(Node other) {
+            int byStart = start.compareTo(other.start);
+            return (byStart != 0) ? byStart : Long.compare(sequence, other.sequence);
+        }
+
+        void update() {
+            maxEnd = end;
+            if (left != null && left.maxEnd.isAfter(maxEnd)) {
+                maxEnd = left.maxEnd;
+            }
+            if (right != null && right.maxEnd.isAfter(maxEnd)) {
+                maxEnd = right.maxEnd;
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the index. Events without a parsed start and end are ignored.
+     *
+     * @param event The event to add.
+     */
+    public void add(Event event) {
+        if (event.getStart() == null || nodes.containsKey(event)) {
+            return;
+        }
+        Node node = new Node(event, nextSequence++, random.nextInt());
+        nodes.put(event, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an event from the index.
+     *
+     * @param event The event to remove.
+     */
+    public void remove(Event event) {
+        Node node = nodes.remove(event);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Returns the events that overlap the slot [from, to), ordered by start.
+     *
+     * @param from The start of the slot.
+     * @param to The end of the slot.
+     */
+    public List<Event> overlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> events = new ArrayList<>();
+        collectOverlapping(root, from, to, events);
+        return events;
+    }
+
+    /**
+     * Returns the start of the first slot of the given length, at or after the given moment, that no event overlaps.
+     *
+     * @param after The earliest moment the slot may start.
+     * @param length The length of the slot.
+     */
+    public LocalDateTime findFreeSlot(LocalDateTime after, Duration length) {
+        LocalDateTime candidate = after;
+        while (true) {
+            List<Event> clashes = overlapping(candidate, candidate.plus(length));
+            if (clashes.isEmpty()) {
+                return candidate;
+            }
+            // Every clash ends after the candidate, so the candidate moves forward each time
+            for (Event clash : clashes) {
+                if (clash.getEnd().isAfter(candidate)) {
+                    candidate = clash.getEnd();
+                }
+            }
+        }
+    }
+
+    private Node insert(Node subtree, Node node) {
+        if (subtree == null) {
+            return node;
+        }
+        if (node.compareTo(subtree) < 0) {
+            subtree.left = insert(subtree.left, node);
+            if (subtree.left.priority > subtree.priority) {
+                subtree = rotateRight(subtree);
+            }
+        } else {
+            subtree.right = insert(subtree.right, node);
+            if (subtree.right.priority > subtree.priority) {
+                subtree = rotateLeft(subtree);
+            }
+        }
+        subtree.update();
+        return subtree;
+    }
+
+    private Node delete(Node subtree, Node node) {
+        if (subtree == null) {
+            return null;
+        }
+        int comparison = node.compareTo(subtree);
+        if (comparison < 0) {
+            subtree.left = delete(subtree.left, node);
+        } else if (comparison > 0) {
+            subtree.right = delete(subtree.right, node);
+        } else {
+            return merge(subtree.left, subtree.right);
+        }
+        subtree.update();
+        return subtree;
+    }
+
+    /**
+     * Joins two treaps where every node of the left one comes before every node of the right one.
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.update();
+        pivot.update();
+        return pivot;
+    }
+
+    private void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<Event> events) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return; // Everything in this subtree has ended by the start of the slot
+        }
+        collectOverlapping(node.left, from, to, events);
+        if (!node.start.isBefore(to)) {
+            return; // This event and everything to its right start after the slot
+        }
+        if (node.end.isAfter(from)) {
+            events.add(node.event);
+        }
+        collectOverlapping(node.right, from, to, events);
+    }
+}
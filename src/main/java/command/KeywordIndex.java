@@ -0,0 +1,298 @@
+package command;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import task.Task;
+
+/**
+ * The KeywordIndex maps every 3 character sequence (trigram) of the task descriptions to the tasks containing it,
+ * so that tasks containing a keyword can be found without scanning every task.
+ * <p>
+ * Matching is case-insensitive and keeps the substring semantics of {@code String.contains}. Keywords of 3 or more
+ * characters are checked against only the tasks that contain their rarest trigram. Shorter keywords are answered
+ * from the trigrams that contain them, plus the few descriptions too short to have a trigram. Tasks are returned
+ * in the order they were added.
+ * <p>
+ * Each task is given an int id in the order it is added, and each trigram keeps the ids of its tasks in an int
+ * array, so the index takes a few bytes per trigram rather than a set entry. The trigrams are only worked out on
+ * the first {@link #find(String)}, so loading a long task list does not pay for an index that may never be used.
+ * Removed tasks are left in the arrays and skipped, until they outnumber the remaining tasks and the index is
+ * rebuilt without them.
+ */
+public class KeywordIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int INITIAL_CAPACITY = 16;
+    /** Set on every trigram key, so that 0 marks an empty slot of the table. */
+    private static final long KEY_MARKER = 1L << 48;
+
+    private final IdentityHashMap<Task, Integer> ids = new IdentityHashMap<>();
+    private Task[] tasks = new Task[INITIAL_CAPACITY];
+    private String[] lowercaseDescriptions = new String[INITIAL_CAPACITY];
+    private int nextId;
+    private int removedCount;
+
+    private long[] keys;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int gramCount;
+    private int[] shortIds;
+    private int shortCount;
+    private volatile boolean isBuilt;
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param task The task to add.
+     */
+    public void add(Task task) {
+        if (nextId == tasks.length) {
+            tasks = Arrays.copyOf(tasks, nextId * 2);
+            lowercaseDescriptions = Arrays.copyOf(lowercaseDescriptions, nextId * 2);
+        }
+        int id = nextId++;
+        tasks[id] = task;
+        ids.put(task, id);
+        if (isBuilt) {
+            addGrams(id);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The task to remove.
+     */
+    public void remove(Task task) {
+        Integer id = ids.remove(task);
+        if (id == null) {
+            return;
+        }
+        tasks[id] = null;
+        lowercaseDescriptions[id] = null;
+        removedCount++;
+        if (removedCount > ids.size() && removedCount > INITIAL_CAPACITY) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns the tasks whose description contains the keyword, ignoring case, in the order they were added.
+     * An empty keyword is not handled here, as it matches every task.
+     * <p>
+     * May be called by several threads at once, as long as none of them is adding or removing tasks.
+     *
+     * @param keyword The keyword to search for, already in lower case.
+     * @return The matching tasks.
+     */
+    public List<Task> find(String keyword) {
+        assert !keyword.isEmpty() : "Empty keywords match every task";
+        if (!isBuilt) {
+            build();
+        }
+        return (keyword.length() < GRAM_LENGTH) ? findShort(keyword) : findLong(keyword);
+    }
+
+    /**
+     * Returns the tasks containing a keyword of at least 3 characters. Only tasks containing every trigram of the
+     * keyword can match, so only the tasks of its rarest trigram are checked.
+     */
+    private List<Task> findLong(String keyword) {
+        int rarestSlot = -1;
+        for (int i = 0; i + GRAM_LENGTH <= keyword.length(); i++) {
+            int slot = slotOf(gramKey(keyword, i));
+            if (keys[slot] == 0) {
+                return Collections.emptyList();
+            }
+            if (rarestSlot < 0 || postingSizes[slot] < postingSizes[rarestSlot]) {
+                rarestSlot = slot;
+            }
+        }
+
+        List<Task> matches = new ArrayList<>();
+        int[] candidates = postings[rarestSlot];
+        for (int i = 0; i < postingSizes[rarestSlot]; i++) {
+            int id = candidates[i];
+            if (tasks[id] != null && lowercaseDescriptions[id].contains(keyword)) {
+                matches.add(tasks[id]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the tasks containing a keyword of 1 or 2 characters. Every task whose description is at least
+     * 3 characters long contains the keyword exactly when one of its trigrams does.
+     */
+    private List<Task> findShort(String keyword) {
+        BitSet matchingIds = new BitSet(nextId);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0 && gramContains(keys[slot], keyword)) {
+                for (int i = 0; i < postingSizes[slot]; i++) {
+                    matchingIds.set(postings[slot][i]);
+                }
+            }
+        }
+        for (int i = 0; i < shortCount; i++) {
+            int id = shortIds[i];
+            if (lowercaseDescriptions[id] != null && lowercaseDescriptions[id].contains(keyword)) {
+                matchingIds.set(id);
+            }
+        }
+
+        List<Task> matches = new ArrayList<>();
+        for (int id = matchingIds.nextSetBit(0); id >= 0; id = matchingIds.nextSetBit(id + 1)) {
+            if (tasks[id] != null) {
+                matches.add(tasks[id]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Works out the trigrams of every task added so far. Finds may run in parallel, so only the first one builds.
+     */
+    private synchronized void build() {
+        if (isBuilt) {
+            return;
+        }
+        keys = new long[INITIAL_CAPACITY];
+        postings = new int[INITIAL_CAPACITY][];
+        postingSizes = new int[INITIAL_CAPACITY];
+        gramCount = 0;
+        shortIds = new int[INITIAL_CAPACITY];
+        shortCount = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (tasks[id] != null) {
+                addGrams(id);
+            }
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * Adds the id of a task to the postings of each trigram of its description. Ids only ever increase, so each
+     * posting stays sorted, and a trigram that appears twice in one description is only added once.
+     */
+    private void addGrams(int id) {
+        String description = tasks[id].getDescription().toLowerCase();
+        lowercaseDescriptions[id] = description;
+        if (description.length() < GRAM_LENGTH) {
+            if (shortCount == shortIds.length) {
+                shortIds = Arrays.copyOf(shortIds, shortCount * 2);
+            }
+            shortIds[shortCount++] = id;
+            return;
+        }
+
+        for (int i = 0; i + GRAM_LENGTH <= description.length(); i++) {
+            int slot = insertSlot(gramKey(description, i));
+            int size = postingSizes[slot];
+            if (size > 0 && postings[slot][size - 1] == id) {
+                continue;
+            }
+            if (postings[slot] == null) {
+                postings[slot] = new int[2];
+            } else if (size == postings[slot].length) {
+                postings[slot] = Arrays.copyOf(postings[slot], size * 2);
+            }
+            postings[slot][size] = id;
+            postingSizes[slot] = size + 1;
+        }
+    }
+
+    /**
+     * Gives the remaining tasks new ids from 0, in the order they were added, and drops the trigrams so that they
+     * are worked out again without the removed tasks on the next find.
+     */
+    private void compact() {
+        int liveCount = 0;
+        for (int id = 0; id < nextId; id++) {
+            if (tasks[id] != null) {
+                tasks[liveCount] = tasks[id];
+                ids.put(tasks[liveCount], liveCount);
+                liveCount++;
+            }
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, liveCount * 2);
+        tasks = Arrays.copyOf(tasks, capacity);
+        Arrays.fill(tasks, liveCount, capacity, null);
+        lowercaseDescriptions = new String[capacity];
+        nextId = liveCount;
+        removedCount = 0;
+        keys = null;
+        postings = null;
+        postingSizes = null;
+        shortIds = null;
+        isBuilt = false;
+    }
+
+    /**
+     * Packs the 3 characters starting at the given index into a key.
+     */
+    private static long gramKey(String text, int start) {
+        return KEY_MARKER | ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+
+    private static boolean gramContains(long key, String keyword) {
+        char first = (char) (key >>> 32);
+        char second = (char) (key >>> 16);
+        char third = (char) key;
+        if (keyword.length() == 1) {
+            char c = keyword.charAt(0);
+            return first == c || second == c || third == c;
+        }
+        char c0 = keyword.charAt(0);
+        char c1 = keyword.charAt(1);
+        return (first == c0 && second == c1) || (second == c0 && third == c1);
+    }
+
+    /**
+     * Returns the slot of the table holding the key, or the empty slot where it would go.
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the slot of the table holding the key, adding the key if it is not there yet.
+     */
+    private int insertSlot(long key) {
+        int slot = slotOf(key);
+        if (keys[slot] == 0) {
+            if ((gramCount + 1) * 2 > keys.length) {
+                growTable();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            gramCount++;
+        }
+        return slot;
+    }
+
+    private void growTable() {
+        long[] oldKeys = keys;
+        int[][] oldPostings = postings;
+        int[] oldSizes = postingSizes;
+        keys = new long[oldKeys.length * 2];
+        postings = new int[keys.length][];
+        postingSizes = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                postings[slot] = oldPostings[i];
+                postingSizes[slot] = oldSizes[i];
+            }
+        }
+    }
+}
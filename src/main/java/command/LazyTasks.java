@@ -0,0 +1,234 @@
+package command;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import dar.TaskFileIndex;
+import task.Task;
+
+/**
+ * The tasks of a file that is still being loaded. Each task is parsed the first time any thread asks for it,
+ * and the result is kept, so every thread sees the same Task object and no line is parsed twice.
+ * <p>
+ * Commands can change the tasks before they have all been loaded: deleted lines are remembered in a bit set,
+ * added tasks are kept after the file's tasks, and both are logged in order so they can be applied to the
+ * loaded list once it is complete. Marking and unmarking change the shared Task objects directly.
+ * Only the lines up to the task a command refers to are parsed, as long as the lines before it are valid.
+ * <p>
+ * Parsing may happen on any thread, but the changes may only be made while holding the command manager's
+ * write lock, and read while holding at least its read lock.
+ */
+class LazyTasks extends AbstractList<Task> {
+    /** Marks a line that could not be parsed, so it is only reported once. */
+    private static final Object INVALID = new Object();
+
+    private final TaskFileIndex file;
+    private final AtomicReferenceArray<Object> decoded;
+    /** The number of lines from the start of the file that are known to hold valid tasks. */
+    private final AtomicInteger validPrefix = new AtomicInteger();
+    /** The number of lines that hold valid tasks, or -1 until every line has been parsed. */
+    private volatile int validLineCount = -1;
+
+    private final BitSet deletedLines = new BitSet();
+    private final List<Task> addedTasks = new ArrayList<>();
+    private final List<Task> changedTasks = new ArrayList<>();
+    private final BitSet isAddition = new BitSet();
+
+    LazyTasks(TaskFileIndex file) {
+        this.file = file;
+        this.decoded = new AtomicReferenceArray<>(file.size());
+    }
+
+    int lineCount() {
+        return file.size();
+    }
+
+    /**
+     * Returns the task on the given line, parsing it if no thread has yet.
+     *
+     * @param line The position of the line, starting at 0.
+     * @return The task, or null if the line is not a valid task.
+     */
+    Task onLine(int line) {
+        Object task = decoded.get(line);
+        if (task == null) {
+            Task parsed = file.decode(line);
+            task = (parsed == null) ? INVALID : parsed;
+            if (!decoded.compareAndSet(line, null, task)) {
+                task = decoded.get(line);
+            }
+        }
+        return (task == INVALID) ? null : (Task) task;
+    }
+
+    /**
+     * Parses every line not yet parsed, in parallel, and counts the valid ones.
+     */
+    void parseAll() {
+        IntStream.range(0, lineCount()).parallel().forEach(this::onLine);
+        validLineCount = (int) IntStream.range(0, lineCount()).filter(line -> onLine(line) != null).count();
+    }
+
+    /**
+     * Returns the task at the given position of the list as it now stands, counting from 0, parsing the lines up
+     * to it if no thread has yet.
+     *
+     * @param position The position of the task.
+     * @return The task, or null if there is no task at that position.
+     */
+    Task taskAt(int position) {
+        int slot = locate(position);
+        if (slot < 0) {
+            return null;
+        }
+        return (slot < lineCount()) ? onLine(slot) : addedTasks.get(slot - lineCount());
+    }
+
+    /**
+     * Returns the number of tasks in the list as it now stands, or -1 if the file has not been fully parsed yet.
+     */
+    int knownSize() {
+        int validLines = validLineCount;
+        return (validLines < 0) ? -1 : validLines - deletedLines.cardinality() + addedTasks.size();
+    }
+
+    /**
+     * Returns the number of tasks in the list as it now stands, parsing the whole file if no thread has yet.
+     */
+    @Override
+    public int size() {
+        if (validLineCount < 0) {
+            parseAll();
+        }
+        return knownSize();
+    }
+
+    /**
+     * Returns the task at the given position, like {@link #taskAt(int)}.
+     *
+     * @throws IndexOutOfBoundsException If there is no task at that position.
+     */
+    @Override
+    public Task get(int position) {
+        Task task = taskAt(position);
+        if (task == null) {
+            throw new IndexOutOfBoundsException("Position: " + position);
+        }
+        return task;
+    }
+
+    /**
+     * Adds a task after every other task.
+     *
+     * @param task The task to add.
+     * @return Always true.
+     */
+    @Override
+    public boolean add(Task task) {
+        addedTasks.add(task);
+        logChange(task, true);
+        return true;
+    }
+
+    /**
+     * Deletes the task at the given position.
+     *
+     * @param position The position of the task, starting at 0.
+     * @return The deleted task.
+     * @throws IndexOutOfBoundsException If there is no task at that position.
+     */
+    @Override
+    public Task remove(int position) {
+        int slot = locate(position);
+        if (slot < 0) {
+            throw new IndexOutOfBoundsException("Position: " + position);
+        }
+
+        Task task;
+        if (slot < lineCount()) {
+            task = onLine(slot);
+            deletedLines.set(slot);
+        } else {
+            task = addedTasks.remove(slot - lineCount());
+        }
+        logChange(task, false);
+        modCount++;
+        return task;
+    }
+
+    /**
+     * Passes each change made so far to the matching callback, in the order they were made.
+     *
+     * @param onAdd Called with each task that was added.
+     * @param onDelete Called with each task that was deleted.
+     */
+    void replayChanges(Consumer<Task> onAdd, Consumer<Task> onDelete) {
+        for (int i = 0; i < changedTasks.size(); i++) {
+            (isAddition.get(i) ? onAdd : onDelete).accept(changedTasks.get(i));
+        }
+    }
+
+    private void logChange(Task task, boolean isAdded) {
+        isAddition.set(changedTasks.size(), isAdded);
+        changedTasks.add(task);
+    }
+
+    /**
+     * Returns where the task at the given position is: its line, or the line count plus its place among the
+     * added tasks. If the lines before it are all valid, only they are checked; otherwise they are counted one
+     * by one.
+     *
+     * @return The slot, or -1 if there is no task at that position.
+     */
+    private int locate(int position) {
+        if (position < 0) {
+            return -1;
+        }
+
+        // The position-th line that is not deleted, if no line before it is invalid
+        int line = position;
+        for (int deleted = deletedLines.nextSetBit(0); deleted >= 0 && deleted <= line;
+                deleted = deletedLines.nextSetBit(deleted + 1)) {
+            line++;
+        }
+        if (isValidUpTo(Math.min(line + 1, lineCount()))) {
+            return (line < lineCount()) ? line : addedSlot(line - lineCount());
+        }
+
+        int remaining = position;
+        for (line = 0; line < lineCount(); line++) {
+            if (!deletedLines.get(line) && onLine(line) != null) {
+                if (remaining == 0) {
+                    return line;
+                }
+                remaining--;
+            }
+        }
+        return addedSlot(remaining);
+    }
+
+    private int addedSlot(int index) {
+        return (index < addedTasks.size()) ? lineCount() + index : -1;
+    }
+
+    /**
+     * Returns whether the given number of lines from the start of the file all hold valid tasks.
+     * Any of them not yet parsed are parsed.
+     *
+     * @param count The number of lines to check.
+     */
+    private boolean isValidUpTo(int count) {
+        for (int line = validPrefix.get(); line < count; line++) {
+            if (onLine(line) == null) {
+                return false;
+            }
+            validPrefix.accumulateAndGet(line + 1, Math::max);
+        }
+        return true;
+    }
+}
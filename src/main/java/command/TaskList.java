@@ -0,0 +1,264 @@
+package command;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import task.Task;
+
+/**
+ * The TaskList holds tasks in order and finds them by position in logarithmic time.
+ * <p>
+ * Tasks are appended to an array of slots and never moved when another task is deleted; the deleted task's
+ * slot is just left empty. A Fenwick tree counts the occupied slots, so the n-th task, the position of a task,
+ * and a deletion all take O(log n). Once more than half of the slots are empty, the tasks are packed together
+ * again, which keeps deletions O(log n) amortized. Tree nodes are only filled in up to the last used slot,
+ * as each node is set when the slot it ends at is first used.
+ * <p>
+ * A task's number is its position in this list (starting at 1), and is worked out on demand by
+ * {@link #numberOf(Task)} instead of being stored in every task.
+ */
+public class TaskList extends AbstractList<Task> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final IdentityHashMap<Task, Integer> slotOfTask = new IdentityHashMap<>();
+    private Task[] slots = new Task[INITIAL_CAPACITY];
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int usedSlots;
+    private int size;
+
+    /**
+     * Constructs an empty TaskList.
+     */
+    public TaskList() {
+    }
+
+    /**
+     * Constructs a TaskList holding the given tasks, in order.
+     *
+     * @param tasks The tasks to add.
+     */
+    public TaskList(Collection<Task> tasks) {
+        addAll(tasks);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        return slots[findSlot(index + 1)];
+    }
+
+    /**
+     * Appends a task to the end of the list.
+     *
+     * @param task The task to append.
+     * @return Always true.
+     */
+    @Override
+    public boolean add(Task task) {
+        assert task != null : "Task cannot be null";
+        assert !slotOfTask.containsKey(task) : "Task is already in the list";
+        if (usedSlots == slots.length) {
+            grow();
+        }
+
+        int slot = usedSlots++;
+        slots[slot] = task;
+        slotOfTask.put(task, slot);
+
+        // The new tree node covers the slots (slot + 1 - lowbit, slot + 1], all of which are already counted
+        int node = slot + 1;
+        tree[node] = 1 + prefixCount(node - 1) - prefixCount(node - Integer.lowestOneBit(node));
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes the task at the given position.
+     *
+     * @param index The position of the task, starting at 0.
+     * @return The removed task.
+     */
+    @Override
+    public Task remove(int index) {
+        checkIndex(index);
+        int slot = findSlot(index + 1);
+        Task task = slots[slot];
+        clearSlot(slot);
+        return task;
+    }
+
+    @Override
+    public boolean remove(Object object) {
+        Integer slot = slotOfTask.get(object);
+        if (slot == null) {
+            return false;
+        }
+        clearSlot(slot);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        slotOfTask.clear();
+        slots = new Task[INITIAL_CAPACITY];
+        tree = new int[INITIAL_CAPACITY + 1];
+        usedSlots = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return slotOfTask.containsKey(object);
+    }
+
+    @Override
+    public int indexOf(Object object) {
+        Integer slot = slotOfTask.get(object);
+        return (slot == null) ? -1 : prefixCount(slot + 1) - 1;
+    }
+
+    /**
+     * Returns the task number of the given task, i.e. its position counting from 1.
+     *
+     * @param task The task to look up.
+     * @return The task number, or -1 if the task is not in the list.
+     */
+    public int numberOf(Task task) {
+        int index = indexOf(task);
+        return (index < 0) ? -1 : index + 1;
+    }
+
+    /**
+     * Returns an iterator over the tasks in order, which walks the slots directly instead of looking up
+     * each position.
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int nextSlot = skipEmpty(0);
+            private final int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return nextSlot < usedSlots;
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Task task = slots[nextSlot];
+                nextSlot = skipEmpty(nextSlot + 1);
+                return task;
+            }
+        };
+    }
+
+    private void clearSlot(int slot) {
+        slotOfTask.remove(slots[slot]);
+        slots[slot] = null;
+        for (int node = slot + 1; node <= usedSlots; node += Integer.lowestOneBit(node)) {
+            tree[node]--;
+        }
+        size--;
+        modCount++;
+
+        if (usedSlots - size > size && usedSlots > INITIAL_CAPACITY) {
+            pack();
+        }
+    }
+
+    /**
+     * Returns the number of tasks in the first given number of slots.
+     */
+    private int prefixCount(int slotCount) {
+        int count = 0;
+        for (int node = slotCount; node > 0; node -= Integer.lowestOneBit(node)) {
+            count += tree[node];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the slot holding the k-th task, counting from 1.
+     */
+    private int findSlot(int k) {
+        int node = 0;
+        int remaining = k;
+        for (int step = Integer.highestOneBit(Math.max(usedSlots, 1)); step > 0; step >>= 1) {
+            int next = node + step;
+            if (next <= usedSlots && tree[next] < remaining) {
+                node = next;
+                remaining -= tree[next];
+            }
+        }
+        return node; // The slot at 0-based index node is the (node + 1)-th tree position
+    }
+
+    private int skipEmpty(int slot) {
+        int current = slot;
+        while (current < usedSlots && slots[current] == null) {
+            current++;
+        }
+        return current;
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        Task[] newSlots = new Task[capacity];
+        System.arraycopy(slots, 0, newSlots, 0, usedSlots);
+        int[] newTree = new int[capacity + 1];
+        // Nodes only cover slots up to themselves, so the filled-in nodes stay valid in the larger tree
+        System.arraycopy(tree, 0, newTree, 0, tree.length);
+        slots = newSlots;
+        tree = newTree;
+    }
+
+    /**
+     * Moves the tasks together into the first slots and rebuilds the tree in linear time.
+     */
+    private void pack() {
+        Task[] newSlots = new Task[Math.max(INITIAL_CAPACITY, Integer.highestOneBit(size) * 2)];
+        int[] newTree = new int[newSlots.length + 1];
+        int count = 0;
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (slots[slot] != null) {
+                newSlots[count] = slots[slot];
+                slotOfTask.put(slots[slot], count);
+                count++;
+            }
+        }
+
+        for (int node = 1; node <= count; node++) {
+            newTree[node]++;
+            int parent = node + Integer.lowestOneBit(node);
+            if (parent <= count) {
+                newTree[parent] += newTree[node];
+            }
+        }
+
+        slots = newSlots;
+        tree = newTree;
+        usedSlots = count;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package dar;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import task.Deadline;
+import task.Event;
+import task.Task;
+import task.ToDo;
+
+/**
+ * The BinaryTaskFormat reads and writes tasks in a compact, versioned binary file.
+ * <p>
+ * The file starts with the magic bytes "DARB", a version byte and the number of tasks. Each task is then stored as
+ * a type tag ('T', 'D' or 'E'), a status byte (1 if done) and its length-prefixed UTF-8 description.
+ * Deadlines add their date as an epoch day and their time as a second of the day, and events add their
+ * length-prefixed start and end. Loading therefore never has to parse dates or split strings.
+ */
+public class BinaryTaskFormat {
+    private static final byte[] MAGIC = {'D', 'A', 'R', 'B'};
+    private static final byte VERSION = 1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_TIME = -1;
+
+    private BinaryTaskFormat() {
+        // Static methods only
+    }
+
+    /**
+     * Writes the tasks to the given file, replacing its contents.
+     *
+     * @param tasks The tasks to write.
+     * @param path The file to write to.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(List<Task> tasks, Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                writeTask(out, task);
+            }
+        }
+    }
+
+    /**
+     * Reads all tasks from the given file. An empty file holds no tasks.
+     *
+     * @param path The file to read from.
+     * @return An array list of the tasks, in file order.
+     * @throws IOException If the file cannot be read or is not a binary task file.
+     */
+    public static ArrayList<Task> read(Path path) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        if (Files.size(path) == 0) {
+            return tasks;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    throw new IOException("Not a binary task file: " + path);
+                }
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary task file version: " + version);
+            }
+
+            int count = in.readInt();
+            tasks.ensureCapacity(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(readTask(in));
+            }
+        }
+        return tasks;
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        if (task instanceof Deadline) {
+            Deadline deadline = (Deadline) task;
+            out.writeByte('D');
+            out.writeByte(task.isDone() ? 1 : 0);
+            writeString(out, deadline.getDescription());
+            out.writeInt(deadline.getDueDate() != null ? (int) deadline.getDueDate().toEpochDay() : NO_DATE);
+            out.writeInt(deadline.getDueTime() != null ? deadline.getDueTime().toSecondOfDay() : NO_TIME);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            out.writeByte('E');
+            out.writeByte(task.isDone() ? 1 : 0);
+            writeString(out, event.getDescription());
+            writeString(out, event.getFrom());
+            writeString(out, event.getTo());
+        } else {
+            out.writeByte('T');
+            out.writeByte(task.isDone() ? 1 : 0);
+            writeString(out, task.getDescription());
+        }
+    }
+
+    private static Task readTask(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        boolean isDone = in.readByte() == 1;
+        String description = readString(in);
+        Task task;
+
+        if (type == 'T') {
+            task = new ToDo(description);
+        } else if (type == 'D') {
+            int epochDay = in.readInt();
+            int secondOfDay = in.readInt();
+            task = new Deadline(description,
+                    epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null,
+                    secondOfDay != NO_TIME ? LocalTime.ofSecondOfDay(secondOfDay) : null);
+        } else if (type == 'E') {
+            String from = readString(in);
+            String to = readString(in);
+            task = new Event(description, from, to);
+        } else {
+            throw new IOException("Unknown task type: " + (char) type);
+        }
+
+        if (isDone) {
+            task.setMark();
+        }
+        return task;
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
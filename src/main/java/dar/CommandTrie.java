@@ -0,0 +1,144 @@
+package dar;
+import java.util.Arrays;
+
+/**
+ * The CommandTrie maps command words to their handlers, and finds the handler for a word inside a longer input
+ * without copying it out or allocating anything.
+ * <p>
+ * The trie is stored in flat arrays: node n's child for letter c is at {@code children[n * 26 + c]}.
+ * Besides the handler of the word ending at a node, each node remembers the handler shared by every word
+ * below it, so any unambiguous prefix of a command works as an abbreviation, e.g. "del" for "delete".
+ * A full word always wins over an abbreviation of a longer one, e.g. "on" is not taken as "overdue".
+ * A word can be given a minimum abbreviation length, so that a slip of one or two keys cannot run a command
+ * that changes data; its shorter prefixes then match no command at all, e.g. "d" is neither "delete" nor "due".
+ * <p>
+ * Words are made of the letters a to z and are matched ignoring case.
+ *
+ * @param <T> The type of the handlers.
+ */
+public class CommandTrie<T> {
+    private static final int ALPHABET_SIZE = 26;
+    private static final int INITIAL_NODES = 64;
+    /** Marks a node whose words do not all share one handler. */
+    private static final Object AMBIGUOUS = new Object();
+
+    private int[] children = new int[INITIAL_NODES * ALPHABET_SIZE];
+    private Object[] handlers = new Object[INITIAL_NODES];
+    private Object[] sharedHandlers = new Object[INITIAL_NODES];
+    private int nodeCount = 1; // Node 0 is the root, so 0 also means "no child"
+
+    /**
+     * Adds a command word, or an alias for one, with its handler. Every unambiguous prefix of it is an abbreviation.
+     *
+     * @param word The word, made of the letters a to z.
+     * @param handler The handler to run for the word and its unambiguous abbreviations.
+     * @throws IllegalArgumentException If the word is empty or has characters other than letters.
+     */
+    public void put(String word, T handler) {
+        put(word, handler, 1);
+    }
+
+    /**
+     * Adds a command word, or an alias for one, with its handler, accepting only abbreviations of at least the
+     * given length. Prefixes shorter than that are not taken as any command.
+     *
+     * @param word The word, made of the letters a to z.
+     * @param handler The handler to run for the word and its unambiguous abbreviations.
+     * @param minAbbreviationLength The shortest prefix accepted; the word's length to accept only the whole word.
+     * @throws IllegalArgumentException If the word is empty or has characters other than letters.
+     */
+    public void put(String word, T handler, int minAbbreviationLength) {
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("A command word cannot be empty");
+        }
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int letter = letterIndex(word.charAt(i));
+            if (letter < 0) {
+                throw new IllegalArgumentException("A command word can only have letters: " + word);
+            }
+            int slot = node * ALPHABET_SIZE + letter;
+            if (children[slot] == 0) {
+                int child = newNode(); // May replace the children array, so it must run before the store
+                children[slot] = child;
+            }
+            node = children[slot];
+            if (i + 1 < minAbbreviationLength) {
+                sharedHandlers[node] = AMBIGUOUS;
+            } else {
+                shareHandler(node, handler);
+            }
+        }
+        handlers[node] = handler;
+    }
+
+    /**
+     * Returns the handler for the word in text[start, end), or null if the word is not a command or an
+     * unambiguous abbreviation of one.
+     *
+     * @param text The text holding the word.
+     * @param start The index of the first character of the word.
+     * @param end The index just after the last character of the word.
+     */
+    @SuppressWarnings("unchecked")
+    public T find(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+        int node = 0;
+        for (int i = start; i < end; i++) {
+            int letter = letterIndex(text.charAt(i));
+            if (letter < 0) {
+                return null;
+            }
+            node = children[node * ALPHABET_SIZE + letter];
+            if (node == 0) {
+                return null;
+            }
+        }
+        if (handlers[node] != null) {
+            return (T) handlers[node];
+        }
+        Object shared = sharedHandlers[node];
+        return (shared == AMBIGUOUS) ? null : (T) shared;
+    }
+
+    /**
+     * Returns the handler for a whole word, or null if it is not a command or an abbreviation of one.
+     *
+     * @param word The word.
+     */
+    public T find(String word) {
+        return find(word, 0, word.length());
+    }
+
+    private void shareHandler(int node, T handler) {
+        if (sharedHandlers[node] == null) {
+            sharedHandlers[node] = handler;
+        } else if (sharedHandlers[node] != handler) {
+            sharedHandlers[node] = AMBIGUOUS;
+        }
+    }
+
+    private int newNode() {
+        if (nodeCount == handlers.length) {
+            int capacity = handlers.length * 2;
+            children = Arrays.copyOf(children, capacity * ALPHABET_SIZE);
+            handlers = Arrays.copyOf(handlers, capacity);
+            sharedHandlers = Arrays.copyOf(sharedHandlers, capacity);
+        }
+        return nodeCount++;
+    }
+
+    /**
+     * Returns the position of the letter in the alphabet, ignoring case, or -1 if it is not a letter from a to z.
+     */
+    private static int letterIndex(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        } else if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        return -1;
+    }
+}
@@ -1,7 +1,9 @@
 package dar;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import command.CommandManager;
 
@@ -14,71 +16,310 @@ import command.CommandManager;
 public class Dar {
 
     /**
-     * This HashMap links command strings (e.g., "todo", "list", "delete")
+     * The file tasks are stored in when Dar is started on its own,
+     * with changes since the last save journaled alongside it.
+     */
+    static final String DEFAULT_FILE_PATH = "./data/dardata.txt";
+
+    /**
+     * Whether the tasks of the default data file are kept in compact mode, which is chosen by starting Dar
+     * with {@code -Ddar.compactTasks=true}.
+     */
+    static final boolean IS_COMPACT = Boolean.getBoolean("dar.compactTasks");
+
+    /**
+     * The shortest abbreviation accepted for commands that change tasks, e.g. "del" but not "d" for "delete".
+     * Commands that end the session have to be typed in full.
+     */
+    private static final int MIN_CHANGE_ABBREVIATION = 3;
+
+    /**
+     * This trie links command words (e.g., "todo", "list", "delete") and their aliases
      * to their corresponding functions that return a response string.
+     * Unambiguous abbreviations of the words, e.g. "del", work as well, but only from 3 letters on
+     * for commands that change tasks.
      */
-    private static final HashMap<String, Function<String, String>> instructionMap = new HashMap<>();
+    private final CommandTrie<Function<String, String>> instructions = new CommandTrie<>();
 
     /**
-     * Handles persistence of tasks to and from disk storage.
-     * Tasks are stored in "./data/dardata.txt".
+     * The function run for "bye", kept so that batches and servers can recognise it.
      */
-    private static final Storage storage = new Storage("./data/dardata.txt");
+    private final Function<String, String> exitInstruction;
 
     /**
      * Manages the execution of commands and maintains the task list.
+     * It may be shared with other Dar instances, e.g. one per connected front-end.
      */
-    private static final CommandManager commandManager = new CommandManager(storage);
-
+    private final CommandManager commandManager;
 
     /**
      * Handles user interface interactions.
      */
-    private static final Ui ui = new Ui();
+    private final Ui ui = new Ui();
 
     /**
-     * Initializes Dar and sets up the instruction map.
+     * Produces the page starting at a given offset for the last "list" or "find", so "next" can continue it.
+     */
+    private IntFunction<String> pagedCommand;
+    private int nextOffset;
+
+    /**
+     * Initializes Dar with its own task list, loaded from the default data file.
      */
     public Dar() {
-        // Filling in the Instruction Map with functions that return Strings
-        instructionMap.put("list", parameter -> commandManager.listTasks());
-        instructionMap.put("sort", parameter -> commandManager.sortDeadline());
-        instructionMap.put("mark", commandManager::markTask);
-        instructionMap.put("unmark", commandManager::unmarkTask);
-        instructionMap.put("todo", commandManager::addTodo);
-        instructionMap.put("deadline", commandManager::addDeadline);
-        instructionMap.put("event", commandManager::addEvent);
-        instructionMap.put("delete", commandManager::deleteTask);
-        instructionMap.put("find", commandManager::findTasks);
+        this(new CommandManager(new JournalStorage(DEFAULT_FILE_PATH), true, IS_COMPACT));
+        commandManager.getMetrics().registerMBean(DEFAULT_FILE_PATH);
+    }
+
+    /**
+     * Initializes Dar on top of a task list that may be shared with other front-ends, and sets up the
+     * instruction map. Paging through "list" and "find" results is kept separately for each Dar.
+     * <p>
+     * Every command is timed, and its latency is added to the metrics shown by "stats".
+     *
+     * @param commandManager The command manager holding the task list.
+     */
+    public Dar(CommandManager commandManager) {
+        this.commandManager = commandManager;
+
+        // Filling in the instructions with functions that return Strings
+        instructions.put("list", timed("list", this::listTasks));
+        instructions.put("sort", timed("sort", parameter -> commandManager.sortDeadline()));
+        instructions.put("mark", timed("mark", commandManager::markTask), MIN_CHANGE_ABBREVIATION);
+        instructions.put("unmark", timed("unmark", commandManager::unmarkTask), MIN_CHANGE_ABBREVIATION);
+        instructions.put("todo", timed("todo", commandManager::addTodo), MIN_CHANGE_ABBREVIATION);
+        instructions.put("deadline", timed("deadline", commandManager::addDeadline), MIN_CHANGE_ABBREVIATION);
+        instructions.put("event", timed("event", commandManager::addEvent), MIN_CHANGE_ABBREVIATION);
+        instructions.put("delete", timed("delete", commandManager::deleteTask), MIN_CHANGE_ABBREVIATION);
+        instructions.put("find", timed("find", this::findTasks));
+        instructions.put("next", timed("next", parameter -> showNextPage()));
+        instructions.put("due", timed("due", commandManager::findDue));
+        instructions.put("overdue", timed("overdue", parameter -> commandManager.listOverdue()));
+        instructions.put("on", timed("on", commandManager::findEventsOn));
+        instructions.put("overlap", timed("overlap", commandManager::findOverlappingEvents));
+        instructions.put("free", timed("free", commandManager::findFreeSlot));
+        instructions.put("stats", timed("stats", parameter -> commandManager.getMetrics().getSummary()));
+        exitInstruction = timed("bye", parameter -> exit());
+        instructions.put("bye", exitInstruction, "bye".length());
+        addAliases();
     }
 
     /**
      * Generates a response for the user's chat message.
+     * <p>
+     * The command word is looked up where it is in the input, without splitting or copying the input;
+     * only the text after it is copied out for the command.
+     *
      * @param input User input string
      * @return Response from Dar
      */
     public String getResponse(String input) {
-        if (input.trim().isEmpty()) {
+        int start = skipSpaces(input);
+        int end = trimmedEnd(input);
+        if (start >= end) {
             return ui.showInvalidInputMessage();
         }
 
-        // Parse the user input into a command and description
-        Parser parser = new Parser(input);
-        String commandWord = parser.getCommandWord();
-        String descriptionText = parser.getDescriptionText();
+        int wordEnd = endOfWord(input, start, end);
+        Function<String, String> instruction = instructions.find(input, start, wordEnd);
+        if (instruction == null) {
+            return ui.showUnknownInputMessage();
+        }
 
-        // Handle "bye" separately
-        if (commandWord.equals("bye")) {
-            storage.saveTasks(commandManager.getTaskList());
-            return ui.showExitMessage();
+        // The description is everything after the first space, e.g. "Buy milk" in "todo Buy milk"
+        String descriptionText = (wordEnd < end) ? input.substring(wordEnd + 1, end) : "";
+        return instruction.apply(descriptionText);
+    }
+
+    /**
+     * Returns whether the input is a command that ends the session, e.g. "bye".
+     *
+     * @param input User input string
+     */
+    public boolean isExitCommand(String input) {
+        return findInstruction(input) == exitInstruction;
+    }
+
+    /**
+     * Runs a sequence of commands as one unit and returns the response to each.
+     * <p>
+     * No other front-end can run commands while the batch runs, and its changes are written to storage
+     * together at the end rather than one by one. A "bye" ends the batch early.
+     * <p>
+     * If the batch is all-or-nothing, it stops at the first command that fails (an unknown command, or a
+     * change that is rejected, e.g. an invalid task number) and undoes the changes made by the ones before it.
+     * The last response then says which command failed.
+     *
+     * @param commands The commands, one per element.
+     * @param isAllOrNothing Whether a failing command undoes the whole batch.
+     * @return The response to each command that was run.
+     */
+    public List<String> executeBatch(List<String> commands, boolean isAllOrNothing) {
+        List<String> responses = new ArrayList<>(commands.size());
+        boolean isAborted = false;
+        commandManager.beginBatch(isAllOrNothing);
+        try {
+            for (String command : commands) {
+                Function<String, String> instruction = findInstruction(command);
+                if (instruction == exitInstruction) {
+                    responses.add(ui.showExitMessage());
+                    break;
+                }
+
+                boolean isKnown = instruction != null;
+                responses.add(getResponse(command));
+                if (isAllOrNothing && (!isKnown || commandManager.isBatchRejected())) {
+                    responses.add(ui.showBatchAbortedMessage(responses.size()));
+                    isAborted = true;
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            isAborted = isAllOrNothing;
+            throw e;
+        } finally {
+            if (isAborted) {
+                commandManager.abortBatch();
+            } else {
+                commandManager.commitBatch();
+            }
         }
+        return responses;
+    }
 
-        // If the command exists in instructionMap, execute and return response
-        if (instructionMap.containsKey(commandWord)) {
-            return instructionMap.get(commandWord).apply(descriptionText);
+    /**
+     * Returns the function for the command word at the start of the input,
+     * or null if the input is blank or the command is unknown.
+     */
+    Function<String, String> findInstruction(String input) {
+        int start = skipSpaces(input);
+        int end = trimmedEnd(input);
+        return instructions.find(input, start, endOfWord(input, start, end));
+    }
+
+    /**
+     * Wraps a command so that each run's duration is recorded under its name.
+     * The histogram is looked up once here, so a run only costs two clock reads and a few counter updates.
+     */
+    private Function<String, String> timed(String name, Function<String, String> command) {
+        LatencyHistogram latency = commandManager.getMetrics().commandLatency(name);
+        return parameter -> {
+            long start = System.nanoTime();
+            try {
+                return command.apply(parameter);
+            } finally {
+                latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * Adds other words for the commands, e.g. "ls" for "list" and "rm" for "delete".
+     */
+    private void addAliases() {
+        instructions.put("ls", instructions.find("list"));
+        instructions.put("rm", instructions.find("delete"), MIN_CHANGE_ABBREVIATION);
+        instructions.put("add", instructions.find("todo"), MIN_CHANGE_ABBREVIATION);
+        instructions.put("done", instructions.find("mark"), MIN_CHANGE_ABBREVIATION);
+        instructions.put("search", instructions.find("find"));
+        instructions.put("exit", exitInstruction, "exit".length());
+        instructions.put("quit", exitInstruction, "quit".length());
+    }
+
+    /**
+     * Saves a checkpoint of the tasks and says goodbye.
+     */
+    private String exit() {
+        commandManager.checkpoint();
+        return ui.showExitMessage();
+    }
+
+    /**
+     * Saves a checkpoint of the tasks and closes their storage, when the program exits.
+     * Only call this on a Dar made with {@link #Dar()}, as the task list of any other Dar may be shared.
+     */
+    public void close() {
+        commandManager.close();
+    }
+
+    /**
+     * Returns the index of the first character that is not whitespace, like {@link String#trim()} sees it.
+     */
+    private static int skipSpaces(String input) {
+        int start = 0;
+        while (start < input.length() && input.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * Returns the index just after the last character that is not whitespace.
+     */
+    private static int trimmedEnd(String input) {
+        int end = input.length();
+        while (end > 0 && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int endOfWord(String input, int start, int end) {
+        int wordEnd = start;
+        while (wordEnd < end && input.charAt(wordEnd) != ' ') {
+            wordEnd++;
+        }
+        return wordEnd;
+    }
+
+    /**
+     * Shows a page of the task list: the first page, or the page given as the parameter (e.g. "list 3").
+     */
+    private String listTasks(String parameter) {
+        int page = 1;
+        if (!parameter.isBlank()) {
+            try {
+                page = Integer.parseInt(parameter.trim());
+            } catch (NumberFormatException e) {
+                return ui.showInvalidPageMessage();
+            }
+        }
+        if (page < 1) {
+            return ui.showInvalidPageMessage();
+        }
+        int firstOffset;
+        try {
+            firstOffset = Math.multiplyExact(page - 1, CommandManager.PAGE_SIZE);
+        } catch (ArithmeticException e) {
+            return ui.showInvalidPageMessage();
+        }
+        if (page > 1 && !commandManager.hasTaskAt(firstOffset)) {
+            return ui.showInvalidPageMessage(); // Page 1 of an empty list still says the list is empty
         }
 
-        // If the command is unknown
-        return ui.showUnknownInputMessage();
+        pagedCommand = offset -> commandManager.listTasks(offset, CommandManager.PAGE_SIZE);
+        nextOffset = firstOffset;
+        return showNextPage();
+    }
+
+    /**
+     * Shows the first page of tasks matching the keyword.
+     */
+    private String findTasks(String keyword) {
+        pagedCommand = offset -> commandManager.findTasks(keyword, offset, CommandManager.PAGE_SIZE);
+        nextOffset = 0;
+        return showNextPage();
+    }
+
+    /**
+     * Shows the page after the one last shown by "list", "find" or "next".
+     */
+    private String showNextPage() {
+        if (pagedCommand == null) {
+            return ui.showNoMorePagesMessage();
+        }
+        String page = pagedCommand.apply(nextOffset);
+        nextOffset += CommandManager.PAGE_SIZE;
+        return page;
     }
 }
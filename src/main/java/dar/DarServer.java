@@ -0,0 +1,205 @@
+package dar;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import command.CommandManager;
+
+/**
+ * The DarServer runs Dar without a GUI, taking commands over TCP so that it can be shared by many clients and
+ * driven from scripts.
+ * <p>
+ * Clients send one command per line. Each response is sent back as its lines followed by a line holding only
+ * ".", and a response line that starts with "." gets an extra "." in front, as in SMTP. The connection is closed
+ * after "bye". All clients share one task list, but each has its own session, e.g. for paging with "next".
+ * <p>
+ * Each connection is handled on its own virtual thread when the JVM supports them (Java 21 onwards), so thousands
+ * of idle sessions cost little; on older JVMs a cached pool of platform threads is used instead.
+ */
+public class DarServer implements AutoCloseable {
+    /** The port used when none is given. */
+    public static final int DEFAULT_PORT = 4567;
+    /** The line that ends every response. */
+    public static final String END_OF_RESPONSE = ".";
+
+    private final CommandManager commandManager;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Ui ui = new Ui();
+
+    /**
+     * Constructs a DarServer and starts listening on the loopback address.
+     *
+     * @param commandManager The command manager holding the task list shared by all clients.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public DarServer(CommandManager commandManager, int port) throws IOException {
+        this(commandManager, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Constructs a DarServer and starts listening on the given address.
+     *
+     * @param commandManager The command manager holding the task list shared by all clients.
+     * @param address The address to listen on.
+     * @throws IOException If the address cannot be bound.
+     */
+    public DarServer(CommandManager commandManager, InetSocketAddress address) throws IOException {
+        this.commandManager = commandManager;
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address, 1024);
+
+        Thread acceptor = new Thread(this::acceptConnections, "dar-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Starts a server on the default task file, listening until the program is stopped.
+     * <p>
+     * The server has no authentication, so it only listens on the loopback address unless
+     * "--bind (address)" is given, e.g. "--bind 0.0.0.0" to accept connections from other machines.
+     *
+     * @param args The port to listen on, if not the default, optionally preceded by "--bind (address)".
+     * @throws IOException If the port cannot be bound.
+     * @throws InterruptedException If interrupted while serving.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        int next = 0;
+        if (args.length >= 2 && args[0].equals("--bind")) {
+            bindAddress = InetAddress.getByName(args[1]);
+            next = 2;
+        }
+        int port = (args.length > next) ? Integer.parseInt(args[next]) : DEFAULT_PORT;
+
+        CommandManager commandManager = new CommandManager(new JournalStorage(Dar.DEFAULT_FILE_PATH), true,
+                Dar.IS_COMPACT);
+        commandManager.getMetrics().registerMBean(Dar.DEFAULT_FILE_PATH);
+        DarServer server = new DarServer(commandManager, new InetSocketAddress(bindAddress, port));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Dar is listening on " + bindAddress.getHostAddress() + " port " + server.getPort());
+        server.awaitClose();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Waits until the server is closed, e.g. by a shutdown hook.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void awaitClose() throws InterruptedException {
+        while (!sessions.awaitTermination(1, TimeUnit.DAYS)) {
+            // Keep waiting
+        }
+    }
+
+    /**
+     * Stops accepting connections, disconnects the clients that are still connected,
+     * and saves a checkpoint of the task list.
+     */
+    @Override
+    public void close() {
+        closeQuietly(serverSocket);
+        for (Socket socket : openSockets) {
+            closeQuietly(socket); // One client failing to close must not keep the others connected
+        }
+        sessions.shutdownNow();
+        commandManager.checkpoint();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sessions.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return; // The server socket was closed
+            } catch (IOException e) {
+                System.out.println("Error accepting connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs one client's session until it says "bye" or disconnects.
+     */
+    private void serve(Socket socket) {
+        Dar dar = new Dar(commandManager);
+        openSockets.add(socket);
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            writeResponse(out, ui.showGreetingMessage());
+            String line;
+            while ((line = in.readLine()) != null) {
+                writeResponse(out, dar.getResponse(line));
+                if (dar.isExitCommand(line)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away or the server was closed; the socket is closed either way
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            System.out.println("Error closing server: " + e.getMessage());
+        }
+    }
+
+    private static void writeResponse(BufferedWriter out, String response) throws IOException {
+        for (String line : response.split("\n")) {
+            if (line.startsWith(END_OF_RESPONSE)) {
+                out.write(END_OF_RESPONSE);
+            }
+            out.write(line);
+            out.write('\n');
+        }
+        out.write(END_OF_RESPONSE);
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Returns an executor running each task on a new virtual thread if the JVM has them,
+     * or on a cached pool of daemon threads otherwise.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "dar-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package dar;
+
+/**
+ * Describes how often written task data is forced to the disk (fsync), trading safety for speed.
+ * <p>
+ * Data that has been written but not yet forced survives the program crashing,
+ * but may be lost if the whole machine goes down.
+ */
+public final class Durability {
+    private static final long EVERY_COMMIT = 0;
+    private static final long ON_EXIT = -1;
+
+    private final long syncIntervalMillis;
+
+    private Durability(long syncIntervalMillis) {
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    /**
+     * Returns a Durability that forces every flushed batch of changes to the disk before continuing.
+     */
+    public static Durability everyCommit() {
+        return new Durability(EVERY_COMMIT);
+    }
+
+    /**
+     * Returns a Durability that forces written changes to the disk at most once per given interval.
+     *
+     * @param intervalMillis The interval between forces, in milliseconds.
+     */
+    public static Durability everyMillis(long intervalMillis) {
+        assert intervalMillis > 0 : "Sync interval must be positive";
+        return new Durability(intervalMillis);
+    }
+
+    /**
+     * Returns a Durability that only forces changes to the disk when the storage is closed or the program exits.
+     */
+    public static Durability onExit() {
+        return new Durability(ON_EXIT);
+    }
+
+    public boolean isEveryCommit() {
+        return syncIntervalMillis == EVERY_COMMIT;
+    }
+
+    public boolean isOnExit() {
+        return syncIntervalMillis == ON_EXIT;
+    }
+
+    public long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+}
@@ -0,0 +1,625 @@
+package dar;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import task.Task;
+
+/**
+ * A Storage that appends each change to a journal file instead of rewriting every task.
+ * <p>
+ * The data file holds a snapshot of the task list and the journal ("dardata.txt.journal") holds the changes
+ * made since that snapshot, one record per line. Loading reads the snapshot and replays the journal on top of it.
+ * <p>
+ * Journal records have the form "ADD | (task in data format)", "MARK | n", "UNMARK | n" or "DELETE | n",
+ * where n is the task number at the time of the change.
+ * <p>
+ * Once the journal grows past a record or size threshold, it is compacted into a new snapshot on a background
+ * thread. The journal is first moved aside to "dardata.txt.journal.old" so new records can keep being appended,
+ * then the snapshot and the old journal are merged into "dardata.txt.next", which replaces the snapshot with an
+ * atomic rename. If the program stops part way, the next load finishes or discards the compaction.
+ * <p>
+ * Records are not written one by one: a {@link PersistenceScheduler} groups bursts of changes into a single
+ * write, and forces them to the disk as often as the configured {@link Durability} asks.
+ */
+public class JournalStorage extends Storage {
+    private static final String SEPARATOR = " | ";
+    private static final int DEFAULT_MAX_RECORDS = 1000;
+    private static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+    private static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path oldJournalPath;
+    private final Path nextSnapshotPath;
+    private final int maxRecords;
+    private final long maxBytes;
+    private final Object journalLock = new Object();
+    private final AtomicBoolean isCompacting = new AtomicBoolean(false);
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dar-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PersistenceScheduler scheduler;
+
+    private final List<String> batchRecords = new ArrayList<>();
+
+    private FileChannel journalChannel;
+    private int journalRecords;
+    private long journalBytes;
+
+    /**
+     * Constructs a new JournalStorage with the specified snapshot file path and default compaction thresholds.
+     * The journal is kept next to it, with ".journal" appended to the name.
+     *
+     * @param filePath The path to the snapshot file.
+     */
+    public JournalStorage(String filePath) {
+        this(filePath, DEFAULT_MAX_RECORDS, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructs a new JournalStorage that compacts once the journal holds the given number of records or bytes.
+     *
+     * @param filePath The path to the snapshot file.
+     * @param maxRecords The number of journal records that triggers a compaction.
+     * @param maxBytes The journal size in bytes that triggers a compaction.
+     */
+    public JournalStorage(String filePath, int maxRecords, long maxBytes) {
+        this(filePath, maxRecords, maxBytes, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_BATCH_SIZE,
+                Durability.everyMillis(DEFAULT_SYNC_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Constructs a new JournalStorage with the given compaction thresholds and group-commit settings.
+     *
+     * @param filePath The path to the snapshot file.
+     * @param maxRecords The number of journal records that triggers a compaction.
+     * @param maxBytes The journal size in bytes that triggers a compaction.
+     * @param maxDelayMillis How long a change may wait before it is written; 0 writes every change immediately.
+     * @param maxBatchSize How many changes may wait before they are written.
+     * @param durability How often written changes are forced to the disk.
+     */
+    public JournalStorage(String filePath, int maxRecords, long maxBytes, long maxDelayMillis, int maxBatchSize,
+            Durability durability) {
+        super(filePath);
+        assert maxRecords > 0 && maxBytes > 0 : "Compaction thresholds must be positive";
+        this.snapshotPath = Paths.get(filePath);
+        this.journalPath = Paths.get(filePath + ".journal");
+        this.oldJournalPath = Paths.get(filePath + ".journal.old");
+        this.nextSnapshotPath = Paths.get(filePath + ".next");
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+        this.scheduler = new PersistenceScheduler(new JournalSink(), maxDelayMillis, maxBatchSize, durability);
+    }
+
+    /**
+     * Writes a full snapshot of the tasks and clears the journal.
+     * <p>
+     * This waits for any compaction in progress and is not used on the command path,
+     * which only appends to the journal.
+     *
+     * @param tasks The list of tasks to save.
+     */
+    @Override
+    public void saveTasks(List<Task> tasks) {
+        long start = System.nanoTime();
+        List<String> lines = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            lines.add(task.toDataFormat());
+        }
+
+        synchronized (journalLock) {
+            scheduler.flushAndRun(() -> {
+                closeJournalChannel();
+                runOnCompactor(() -> {
+                    try {
+                        writeSnapshot(lines);
+                    } catch (IOException e) {
+                        System.out.println("Error saving tasks: " + e.getMessage());
+                    }
+                });
+            });
+            journalRecords = 0;
+            journalBytes = 0;
+        }
+        metrics.recordSave(tasks.size(), System.nanoTime() - start);
+    }
+
+    @Override
+    public void recordAdd(List<Task> tasks, Task task) {
+        appendRecord("ADD" + SEPARATOR + task.toDataFormat());
+    }
+
+    @Override
+    public void recordMark(List<Task> tasks, int taskNumber) {
+        appendRecord("MARK" + SEPARATOR + taskNumber);
+    }
+
+    @Override
+    public void recordUnmark(List<Task> tasks, int taskNumber) {
+        appendRecord("UNMARK" + SEPARATOR + taskNumber);
+    }
+
+    @Override
+    public void recordDelete(List<Task> tasks, int taskNumber) {
+        appendRecord("DELETE" + SEPARATOR + taskNumber);
+    }
+
+    /**
+     * Ends a batch of changes and writes them in one flush.
+     * <p>
+     * A batch with more records than would trigger a compaction is written as a new snapshot instead,
+     * as the journal would be merged into one straight away anyway.
+     *
+     * @param tasks The full task list, after the batch.
+     */
+    @Override
+    public void commitBatch(List<Task> tasks) {
+        isInBatch = false;
+        if (batchRecords.size() >= maxRecords) {
+            batchRecords.clear();
+            saveTasks(tasks);
+            return;
+        }
+
+        synchronized (journalLock) {
+            for (String record : batchRecords) {
+                appendRecord(record);
+            }
+            scheduler.flush();
+        }
+        batchRecords.clear();
+    }
+
+    @Override
+    public void abortBatch() {
+        isInBatch = false;
+        batchRecords.clear();
+    }
+
+    /**
+     * Starts a background compaction if the journal holds any records, without waiting for it.
+     *
+     * @param tasks The full task list (unused, as the journal already holds every change).
+     */
+    @Override
+    public void checkpoint(List<Task> tasks) {
+        synchronized (journalLock) {
+            if (journalRecords > 0) {
+                startCompaction();
+            }
+        }
+    }
+
+    /**
+     * Loads the snapshot and replays the journal on top of it.
+     * <p>
+     * If any journal records were replayed, a compaction is started in the background so the next load is faster.
+     *
+     * @return An array list of tasks, as they were after the last recorded change.
+     */
+    @Override
+    protected ArrayList<Task> readTasks() {
+        scheduler.flush();
+        recoverInterruptedCompaction();
+
+        ArrayList<Task> tasks = super.readTasks();
+        int oldRecords = replayJournal(tasks, oldJournalPath.toFile());
+        int newRecords = replayJournal(tasks, journalPath.toFile());
+
+        synchronized (journalLock) {
+            journalRecords = newRecords;
+            journalBytes = journalPath.toFile().length();
+            if (oldRecords + newRecords > 0) {
+                startCompaction();
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Indexes the snapshot without parsing it, if there are no journal records to replay on top of it,
+     * e.g. after the journal was compacted when the user last said bye.
+     *
+     * @return The index, or null if the tasks have to be loaded with {@link #loadTasks()} instead.
+     */
+    @Override
+    public TaskFileIndex indexTasks() {
+        scheduler.flush();
+        recoverInterruptedCompaction();
+        if (oldJournalPath.toFile().length() > 0 || journalPath.toFile().length() > 0) {
+            return null;
+        }
+        return super.indexTasks();
+    }
+
+    /**
+     * Blocks until any compaction that has been started has finished.
+     */
+    public void awaitCompaction() {
+        runOnCompactor(() -> { });
+    }
+
+    /**
+     * Writes and forces all changes that are still waiting to be written, closes the journal and stops the
+     * background threads. A compaction already started still finishes. Changes recorded afterwards, e.g. by a
+     * command still running while the program exits, are written to the journal straight away and are not
+     * compacted until the tasks are next loaded.
+     */
+    @Override
+    public void close() {
+        synchronized (journalLock) {
+            scheduler.flushAndRun(this::closeJournalChannel);
+            scheduler.close();
+        }
+        compactor.shutdown();
+    }
+
+    /**
+     * Applies every record in the given journal to the tasks, in order.
+     * <p>
+     * Records that cannot be applied are reported and skipped.
+     *
+     * @param tasks The tasks loaded from the snapshot.
+     * @param journal The journal file to replay.
+     * @return The number of records read from the journal.
+     */
+    private int replayJournal(ArrayList<Task> tasks, File journal) {
+        if (!journal.exists()) {
+            return 0;
+        }
+
+        int records = 0;
+        try (Scanner scanner = new Scanner(journal, StandardCharsets.UTF_8)) {
+            while (scanner.hasNextLine()) {
+                String line = scanner.nextLine();
+                if (line.isBlank()) {
+                    continue;
+                }
+                records++;
+                try {
+                    applyRecord(tasks, line);
+                } catch (Exception e) {
+                    System.out.println("Error replaying journal record: " + line);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading journal: " + e.getMessage());
+        }
+        return records;
+    }
+
+    private void applyRecord(ArrayList<Task> tasks, String record) {
+        String[] parts = record.split(" \\| ", 2);
+        String operation = parts[0];
+        String argument = parts[1];
+
+        switch (operation) {
+        case "ADD":
+            tasks.add(Task.fromDataFormat(argument));
+            break;
+        case "MARK":
+            tasks.get(Integer.parseInt(argument) - 1).setMark();
+            break;
+        case "UNMARK":
+            tasks.get(Integer.parseInt(argument) - 1).setUnmark();
+            break;
+        case "DELETE":
+            tasks.remove(Integer.parseInt(argument) - 1);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal record: " + operation);
+        }
+    }
+
+    /**
+     * Applies a journal record to the snapshot lines, without rendering any task again.
+     * <p>
+     * Task numbers count only the lines that hold a task, as loading does, so they are looked up in
+     * the task positions. Deleted lines are set to null rather than removed, so the positions stay valid.
+     *
+     * @param lines The snapshot lines, including any that hold no task.
+     * @param taskPositions The position in lines of each task, in task order.
+     * @param record The journal record to apply.
+     */
+    private void applyRecordToLines(List<String> lines, List<Integer> taskPositions, String record) {
+        String[] parts = record.split(" \\| ", 2);
+        String operation = parts[0];
+        String argument = parts[1];
+
+        switch (operation) {
+        case "ADD":
+            if (parseLine(argument) == null) {
+                throw new IllegalArgumentException("Invalid task: " + argument);
+            }
+            taskPositions.add(lines.size());
+            lines.add(argument);
+            break;
+        case "MARK":
+            setStatus(lines, taskPositions.get(Integer.parseInt(argument) - 1), "1");
+            break;
+        case "UNMARK":
+            setStatus(lines, taskPositions.get(Integer.parseInt(argument) - 1), "0");
+            break;
+        case "DELETE":
+            lines.set(taskPositions.remove(Integer.parseInt(argument) - 1), null);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown journal record: " + operation);
+        }
+    }
+
+    private void setStatus(List<String> lines, int position, String status) {
+        String[] fields = lines.get(position).split(" \\| ", 3);
+        lines.set(position, fields[0] + SEPARATOR + status + SEPARATOR + fields[2]);
+    }
+
+    private void appendRecord(String record) {
+        if (isInBatch) {
+            batchRecords.add(record);
+            return;
+        }
+        synchronized (journalLock) {
+            scheduler.submit(record);
+            journalRecords++;
+            journalBytes += utf8Length(record) + System.lineSeparator().length();
+            if (journalRecords >= maxRecords || journalBytes >= maxBytes) {
+                startCompaction();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes the text takes in UTF-8, as written to the journal, without encoding it.
+     */
+    private static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 3;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes++; // A lone surrogate is written as '?'
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Moves the journal aside and merges it into the snapshot on the compactor thread.
+     * Does nothing if a compaction is already running; the records will be picked up by the next one.
+     * Must be called while holding the journal lock.
+     */
+    private void startCompaction() {
+        if (compactor.isShutdown() || !isCompacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        boolean[] isRotated = {false};
+        scheduler.flushAndRun(() -> {
+            try {
+                closeJournalChannel();
+                rotateJournal();
+                isRotated[0] = true;
+            } catch (IOException e) {
+                System.out.println("Error rotating journal: " + e.getMessage());
+            }
+        });
+        if (!isRotated[0]) {
+            isCompacting.set(false);
+            return;
+        }
+        journalRecords = 0;
+        journalBytes = 0;
+
+        try {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (Exception e) {
+                    System.out.println("Error compacting tasks: " + e.getMessage());
+                } finally {
+                    isCompacting.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            isCompacting.set(false); // Closed meanwhile; the next load merges the old journal
+        }
+    }
+
+    /**
+     * Moves the current journal to the old journal, appending to it if a previous compaction left it behind.
+     */
+    private void rotateJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        if (Files.exists(oldJournalPath)) {
+            Files.write(oldJournalPath, Files.readAllBytes(journalPath), StandardOpenOption.APPEND);
+            Files.delete(journalPath);
+        } else {
+            Files.move(journalPath, oldJournalPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Merges the old journal into the snapshot and replaces the snapshot.
+     * <p>
+     * The merged snapshot is made durable before the old journal is deleted, so a crash at any point leaves
+     * either the old journal (and the merge is redone) or the complete new snapshot (and it is renamed into place).
+     * Lines that cannot be parsed are kept where they were, so they can still be fixed by hand; blank lines are
+     * left out.
+     */
+    private void compact() throws IOException {
+        if (!Files.exists(oldJournalPath)) {
+            return;
+        }
+
+        List<String> lines = new ArrayList<>();
+        List<Integer> taskPositions = new ArrayList<>();
+        for (String line : Files.readAllLines(snapshotPath, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (parseLine(line) != null) {
+                taskPositions.add(lines.size());
+            }
+            lines.add(line);
+        }
+        for (String record : Files.readAllLines(oldJournalPath, StandardCharsets.UTF_8)) {
+            if (record.isBlank()) {
+                continue;
+            }
+            try {
+                applyRecordToLines(lines, taskPositions, record);
+            } catch (Exception e) {
+                System.out.println("Error replaying journal record: " + record);
+            }
+        }
+        lines.removeIf(line -> line == null);
+
+        writeNextSnapshot(lines);
+        Files.delete(oldJournalPath);
+        Files.move(nextSnapshotPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Replaces the snapshot with the given lines and clears both journals.
+     */
+    private void writeSnapshot(List<String> lines) throws IOException {
+        writeNextSnapshot(lines);
+        Files.deleteIfExists(oldJournalPath);
+        Files.deleteIfExists(journalPath);
+        Files.move(nextSnapshotPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void writeNextSnapshot(List<String> lines) throws IOException {
+        Files.write(nextSnapshotPath, lines, StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(nextSnapshotPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+            metrics.recordBytesWritten(channel.size());
+        }
+    }
+
+    /**
+     * Finishes or discards a compaction that was interrupted by the program stopping.
+     * <p>
+     * If the old journal is still there, the merge never completed and the partial snapshot is discarded.
+     * Otherwise a leftover new snapshot is complete and only needs to be renamed into place.
+     */
+    private void recoverInterruptedCompaction() {
+        try {
+            if (!Files.exists(nextSnapshotPath)) {
+                return;
+            }
+            if (Files.exists(oldJournalPath)) {
+                Files.delete(nextSnapshotPath);
+            } else {
+                Files.move(nextSnapshotPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.out.println("Error recovering compaction: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the journal file so it can be moved or deleted. It is reopened by the next write.
+     * Must be called while no flush can happen.
+     */
+    private void closeJournalChannel() {
+        if (journalChannel == null) {
+            return;
+        }
+        try {
+            journalChannel.force(false);
+            journalChannel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+        journalChannel = null;
+    }
+
+    /**
+     * Runs the action on the compactor thread and waits for it. Once the storage is closed, the action runs on
+     * this thread instead, after any compaction still running has finished.
+     */
+    private void runOnCompactor(Runnable action) {
+        try {
+            compactor.submit(action).get();
+        } catch (RejectedExecutionException e) {
+            try {
+                compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                action.run();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error running storage task: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Appends flushed records to the journal file, keeping it open between flushes.
+     * Only called by the scheduler, which never runs two flushes at once.
+     */
+    private class JournalSink implements PersistenceScheduler.Sink {
+        @Override
+        public void write(List<String> records) throws IOException {
+            StringBuilder batch = new StringBuilder();
+            for (String record : records) {
+                batch.append(record).append(System.lineSeparator());
+            }
+
+            if (journalChannel == null) {
+                journalChannel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journalChannel.write(buffer);
+            }
+            metrics.recordJournalRecords(records.size());
+            metrics.recordBytesWritten(buffer.capacity());
+        }
+
+        @Override
+        public void sync() throws IOException {
+            if (journalChannel != null) {
+                journalChannel.force(false);
+            }
+        }
+    }
+}
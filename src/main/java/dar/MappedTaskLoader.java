@@ -0,0 +1,182 @@
+package dar;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import task.Task;
+
+/**
+ * The MappedTaskLoader loads large task files by parsing chunks of them in parallel.
+ * <p>
+ * The file is split into chunks that end on a line break, so each chunk holds whole lines. Each chunk is read
+ * and parsed on a fork-join pool, and the results are joined back in file order, so tasks keep their order
+ * and therefore their numbering. Chunks are read into heap buffers rather than memory-mapped, as a mapped file
+ * cannot be replaced on some systems until the mapping is collected, and the file is replaced on every save.
+ */
+public class MappedTaskLoader {
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int BOUNDARY_SCAN_SIZE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Constructs a MappedTaskLoader that parses on the common fork-join pool with the default chunk size.
+     */
+    public MappedTaskLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a MappedTaskLoader that parses on the given pool.
+     *
+     * @param pool The fork-join pool to parse chunks on.
+     * @param chunkSize The approximate size of each chunk, in bytes.
+     */
+    public MappedTaskLoader(ForkJoinPool pool, int chunkSize) {
+        assert chunkSize > 0 : "Chunk size must be positive";
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads all tasks in the given file, in file order.
+     * <p>
+     * Lines that cannot be parsed are reported and skipped, like in {@link Storage#loadTasks()}.
+     *
+     * @param path The task file, in data format.
+     * @return An array list of the loaded tasks.
+     * @throws IOException If the file cannot be read.
+     */
+    public ArrayList<Task> load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<Long> boundaries = findChunkBoundaries(channel);
+            return pool.invoke(new ParseChunks(channel, boundaries, 0, boundaries.size() - 1));
+        }
+    }
+
+    /**
+     * Returns the offsets at which chunks start, followed by the file size.
+     * Every offset except the first is just after a line break.
+     */
+    private List<Long> findChunkBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+
+        long position = chunkSize;
+        while (position < size) {
+            long lineEnd = findNextLineBreak(channel, position, size);
+            if (lineEnd >= size) {
+                break;
+            }
+            boundaries.add(lineEnd + 1);
+            position = lineEnd + 1 + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+
+    private long findNextLineBreak(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int length = (int) Math.min(BOUNDARY_SCAN_SIZE, size - position);
+            ByteBuffer window = read(channel, position, length);
+            for (int i = 0; i < length; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += length;
+        }
+        return size;
+    }
+
+    /**
+     * Parses the whole lines in one chunk of the file.
+     */
+    private static ArrayList<Task> parseChunk(FileChannel channel, long start, long end) throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        if (start >= end) {
+            return tasks;
+        }
+
+        String text = StandardCharsets.UTF_8.decode(read(channel, start, (int) (end - start))).toString();
+
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            int contentEnd = (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') ? lineEnd - 1 : lineEnd;
+            Task task = Storage.parseLine(text.substring(lineStart, contentEnd));
+            if (task != null) {
+                tasks.add(task);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return tasks;
+    }
+
+    /**
+     * Reads the given range of the file into a new heap buffer, ready to be read from its start.
+     * Reads at a position do not move the channel, so chunks can be read on several threads at once.
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Task file ended early at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Parses a range of chunks, splitting it in half until a single chunk is left.
+     * It is only Serializable because every ForkJoinTask is, and is never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static class ParseChunks extends RecursiveTask<ArrayList<Task>> {
+        private final FileChannel channel;
+        private final List<Long> boundaries;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ParseChunks(FileChannel channel, List<Long> boundaries, int fromChunk, int toChunk) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected ArrayList<Task> compute() {
+            if (toChunk - fromChunk <= 1) {
+                try {
+                    return parseChunk(channel, boundaries.get(fromChunk), boundaries.get(toChunk));
+                } catch (IOException e) {
+                    System.out.println("Error reading tasks from file: " + e.getMessage());
+                    return new ArrayList<>();
+                }
+            }
+
+            int middle = (fromChunk + toChunk) >>> 1;
+            ParseChunks left = new ParseChunks(channel, boundaries, fromChunk, middle);
+            ParseChunks right = new ParseChunks(channel, boundaries, middle, toChunk);
+            right.fork();
+            ArrayList<Task> tasks = left.compute();
+            tasks.addAll(right.join());
+            return tasks;
+        }
+    }
+}
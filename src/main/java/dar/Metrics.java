@@ -0,0 +1,191 @@
+package dar;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The Metrics class counts how long each command takes and how much work the storage does, so that slow commands
+ * and heavy writes can be seen without attaching a profiler.
+ * <p>
+ * Each storage has its own metrics, which every front-end on top of it shares. They can be shown with the "stats"
+ * command or read over JMX once {@link #registerMBean(String)} has been called.
+ * <p>
+ * Recording only adds to counters and histograms, and nothing runs in the background, so the metrics cost nothing
+ * while Dar is idle.
+ */
+public class Metrics implements MetricsMBean {
+    private final Map<String, LatencyHistogram> commandLatencies = new ConcurrentHashMap<>();
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private final LongAdder tasksLoaded = new LongAdder();
+    private final LongAdder tasksSaved = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder journalRecordsWritten = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * Returns the histogram of how long a command takes, creating it the first time the command is asked for.
+     * Callers should keep the histogram rather than look it up on every run.
+     *
+     * @param command The command word, e.g. "list".
+     */
+    public LatencyHistogram commandLatency(String command) {
+        return commandLatencies.computeIfAbsent(command, name -> new LatencyHistogram());
+    }
+
+    /**
+     * Records that tasks were loaded from storage.
+     *
+     * @param taskCount The number of tasks loaded.
+     * @param nanos How long loading took, in nanoseconds.
+     */
+    public void recordLoad(int taskCount, long nanos) {
+        tasksLoaded.add(taskCount);
+        lastLoadNanos = nanos;
+    }
+
+    /**
+     * Records that the whole task list was saved.
+     *
+     * @param taskCount The number of tasks saved.
+     * @param nanos How long saving took, in nanoseconds.
+     */
+    public void recordSave(int taskCount, long nanos) {
+        tasksSaved.add(taskCount);
+        saveLatency.record(nanos);
+    }
+
+    /**
+     * Records bytes written to a data file, journal or snapshot.
+     *
+     * @param bytes The number of bytes written.
+     */
+    public void recordBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records changes appended to a journal instead of saving the whole task list.
+     *
+     * @param records The number of journal records written.
+     */
+    public void recordJournalRecords(int records) {
+        journalRecordsWritten.add(records);
+    }
+
+    /**
+     * Makes the metrics readable over JMX as "dar:type=Metrics,name=(name)".
+     * If they cannot be registered, e.g. because the name is taken, an error message is displayed.
+     *
+     * @param name The name to tell these metrics apart from others, e.g. the data file path.
+     */
+    public void registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("dar:type=Metrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException e) {
+            System.out.println("Error registering metrics: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getCommandsRun() {
+        long commandsRun = 0;
+        for (LatencyHistogram latency : commandLatencies.values()) {
+            commandsRun += latency.getCount();
+        }
+        return commandsRun;
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return tasksLoaded.sum();
+    }
+
+    @Override
+    public long getTasksSaved() {
+        return tasksSaved.sum();
+    }
+
+    @Override
+    public long getSaves() {
+        return saveLatency.getCount();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getJournalRecordsWritten() {
+        return journalRecordsWritten.sum();
+    }
+
+    @Override
+    public long getLastLoadMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(lastLoadNanos);
+    }
+
+    @Override
+    public long getSaveP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(saveLatency.valueAtPercentile(50));
+    }
+
+    @Override
+    public long getSaveP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(saveLatency.valueAtPercentile(99));
+    }
+
+    @Override
+    public long getSaveMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(saveLatency.getMax());
+    }
+
+    @Override
+    public long commandPercentileMicros(String command, double percentile) {
+        LatencyHistogram latency = commandLatencies.get(command);
+        return (latency == null) ? 0 : TimeUnit.NANOSECONDS.toMicros(latency.valueAtPercentile(percentile));
+    }
+
+    /**
+     * Returns a report of the commands that have run, in alphabetical order, followed by the storage counters.
+     * Durations are in milliseconds.
+     */
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder("Commands (ms):\n");
+        boolean hasRun = false;
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(commandLatencies).entrySet()) {
+            LatencyHistogram latency = entry.getValue();
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            hasRun = true;
+            summary.append(String.format("  %s: %d runs, mean %.3f, p50 %.3f, p90 %.3f, p99 %.3f, max %.3f\n",
+                    entry.getKey(), latency.getCount(), toMillis(latency.getMean()),
+                    toMillis(latency.valueAtPercentile(50)), toMillis(latency.valueAtPercentile(90)),
+                    toMillis(latency.valueAtPercentile(99)), toMillis(latency.getMax())));
+        }
+        if (!hasRun) {
+            summary.append("  none yet\n");
+        }
+
+        summary.append(String.format("Storage:\n  %d tasks loaded in %.3f ms\n", getTasksLoaded(),
+                toMillis(lastLoadNanos)));
+        summary.append(String.format("  %d saves of %d tasks in total, p50 %.3f ms, p99 %.3f ms, max %.3f ms\n",
+                getSaves(), getTasksSaved(), toMillis(saveLatency.valueAtPercentile(50)),
+                toMillis(saveLatency.valueAtPercentile(99)), toMillis(saveLatency.getMax())));
+        summary.append(String.format("  %d journal records, %d bytes written\n", getJournalRecordsWritten(),
+                getBytesWritten()));
+        return summary.toString();
+    }
+
+    private static double toMillis(double nanos) {
+        return nanos / 1_000_000;
+    }
+}
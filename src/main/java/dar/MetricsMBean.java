@@ -0,0 +1,38 @@
+package dar;
+
+/**
+ * The management interface of {@link Metrics}, for reading Dar's metrics over JMX, e.g. with JConsole.
+ * <p>
+ * Durations are in microseconds.
+ */
+public interface MetricsMBean {
+    long getCommandsRun();
+
+    long getTasksLoaded();
+
+    long getTasksSaved();
+
+    long getSaves();
+
+    long getBytesWritten();
+
+    long getJournalRecordsWritten();
+
+    long getLastLoadMicros();
+
+    long getSaveP50Micros();
+
+    long getSaveP99Micros();
+
+    long getSaveMaxMicros();
+
+    String getSummary();
+
+    /**
+     * Returns the duration that the given percentage of runs of a command took at most, or 0 if it has not run.
+     *
+     * @param command The command word, e.g. "list".
+     * @param percentile The percentage, from 0 to 100.
+     */
+    long commandPercentileMicros(String command, double percentile);
+}
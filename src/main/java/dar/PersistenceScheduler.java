@@ -0,0 +1,177 @@
+package dar;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PersistenceScheduler groups records written in quick succession into a single flush.
+ * <p>
+ * Submitted records are held in memory until either the batch is full or the oldest record has waited
+ * for the maximum delay, and are then handed to the sink in one write. How often the sink is forced to
+ * the disk is controlled by a {@link Durability}.
+ * <p>
+ * Schedulers that have not been closed are flushed and forced by a single shutdown hook when the program exits,
+ * so creating many of them, e.g. in tests, does not pile up hooks. Records submitted after a scheduler is closed,
+ * e.g. by a command still running while the program exits, are written and forced straight away.
+ */
+public class PersistenceScheduler {
+    private static final Set<PersistenceScheduler> OPEN_SCHEDULERS = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (PersistenceScheduler scheduler : OPEN_SCHEDULERS) {
+                scheduler.close();
+            }
+        }, "dar-persistence-exit"));
+    }
+
+    private final Sink sink;
+    private final long maxDelayMillis;
+    private final int maxBatchSize;
+    private final Durability durability;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dar-persistence");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<String> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean isUnsynced;
+    private boolean isClosed;
+
+    /**
+     * Destination for flushed records.
+     */
+    public interface Sink {
+        /**
+         * Writes the records, in order.
+         *
+         * @param records The records to write.
+         * @throws IOException If the records could not be written.
+         */
+        void write(List<String> records) throws IOException;
+
+        /**
+         * Forces everything written so far to the disk.
+         *
+         * @throws IOException If the data could not be forced.
+         */
+        void sync() throws IOException;
+    }
+
+    /**
+     * Constructs a PersistenceScheduler writing to the given sink.
+     * <p>
+     * Any records still queued when the program exits are flushed and forced, unless it has been closed.
+     *
+     * @param sink Where flushed records are written.
+     * @param maxDelayMillis How long a record may wait before being flushed; 0 flushes every record immediately.
+     * @param maxBatchSize How many records may wait before being flushed.
+     * @param durability How often written records are forced to the disk.
+     */
+    public PersistenceScheduler(Sink sink, long maxDelayMillis, int maxBatchSize, Durability durability) {
+        assert maxDelayMillis >= 0 : "Maximum delay cannot be negative";
+        assert maxBatchSize > 0 : "Maximum batch size must be positive";
+        this.sink = sink;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.durability = durability;
+
+        if (!durability.isEveryCommit() && !durability.isOnExit()) {
+            long interval = durability.getSyncIntervalMillis();
+            timer.scheduleAtFixedRate(this::syncIfUnsynced, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        OPEN_SCHEDULERS.add(this);
+    }
+
+    /**
+     * Queues a record to be written with the next flush.
+     *
+     * @param record The record to write.
+     */
+    public synchronized void submit(String record) {
+        pending.add(record);
+        if (isClosed) {
+            flush(); // The timer has stopped, so nothing would flush or force it later
+            syncIfUnsynced();
+        } else if (maxDelayMillis == 0 || pending.size() >= maxBatchSize) {
+            flush();
+        } else if (scheduledFlush == null) {
+            scheduledFlush = timer.schedule(this::flush, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes all queued records to the sink now.
+     * If an error occurs during writing, an error message is displayed and the records are dropped.
+     */
+    public synchronized void flush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            sink.write(pending);
+            isUnsynced = true;
+        } catch (IOException e) {
+            System.out.println("Error writing tasks: " + e.getMessage());
+        }
+        pending.clear();
+
+        if (durability.isEveryCommit()) {
+            syncIfUnsynced();
+        }
+    }
+
+    /**
+     * Flushes all queued records, then runs the action while no other flush can happen.
+     *
+     * @param action The action to run, e.g. moving the file being written to.
+     */
+    public synchronized void flushAndRun(Runnable action) {
+        flush();
+        action.run();
+    }
+
+    /**
+     * Flushes and forces all queued records, and stops the timer.
+     * Records submitted afterwards are written and forced one by one.
+     */
+    public synchronized void close() {
+        isClosed = true;
+        OPEN_SCHEDULERS.remove(this);
+        flush();
+        syncIfUnsynced();
+        timer.shutdown();
+    }
+
+    /**
+     * Returns the number of records waiting for the next flush.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private synchronized void syncIfUnsynced() {
+        if (!isUnsynced) {
+            return;
+        }
+        try {
+            sink.sync();
+            isUnsynced = false;
+        } catch (IOException e) {
+            System.out.println("Error syncing tasks: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dar;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The ScriptRunner runs a file of commands, one per line, against the default task file as a single batch,
+ * e.g. for importing many tasks at once.
+ */
+public class ScriptRunner {
+    /**
+     * Runs the script and prints the response to each command.
+     * <p>
+     * Usage: "(script file, or - for standard input) [--all-or-nothing]".
+     *
+     * @param args The script to run, optionally followed by "--all-or-nothing".
+     * @throws IOException If the script cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: --script (file, or - for standard input) [--all-or-nothing]");
+            return;
+        }
+        boolean isAllOrNothing = args.length > 1 && args[1].equals("--all-or-nothing");
+        List<String> commands = args[0].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).lines()
+                        .collect(Collectors.toList())
+                : Files.readAllLines(Paths.get(args[0]));
+
+        for (String response : new Dar().executeBatch(commands, isAllOrNothing)) {
+            System.out.print(response.endsWith("\n") ? response : response + "\n");
+        }
+    }
+}
@@ -2,7 +2,10 @@ package dar;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 import task.Task;
@@ -11,19 +14,39 @@ import task.Task;
  * The Storage class handles the saving and loading of tasks to and from a specified file.
  * <p>
  * The class provides methods for saving tasks, loading tasks, and managing the file that stores the tasks.
+ * Text files are always read and written as UTF-8, whatever the platform's default charset.
  * If the file or directory does not exist, it will be created automatically.
  */
 public class Storage {
-    private String filePath;
+    /** Files at least this large are loaded with {@link MappedTaskLoader} instead of line by line. */
+    private static final long PARALLEL_LOAD_THRESHOLD = 4 * 1024 * 1024;
+
+    protected final String filePath;
+    private final StorageFormat format;
+    /** Whether changes are held back until the current batch is committed. */
+    protected boolean isInBatch;
+    /** Counts the tasks loaded and saved and the bytes written, for the "stats" command. */
+    protected final Metrics metrics = new Metrics();
 
     /**
-     * Constructs a new Storage instance with the specified file path.
+     * Constructs a new Storage instance with the specified file path, using the text format.
      *
      * @param filePath The path to the file where tasks will be saved or loaded.
      */
     public Storage(String filePath) {
+        this(filePath, StorageFormat.TEXT);
+    }
+
+    /**
+     * Constructs a new Storage instance with the specified file path and file format.
+     *
+     * @param filePath The path to the file where tasks will be saved or loaded.
+     * @param format The format the file is written in.
+     */
+    public Storage(String filePath, StorageFormat format) {
         assert filePath != null : "File path cannot be null";
         this.filePath = filePath;
+        this.format = format;
         createFileAndDirectoryIfNotExists();
     }
 
@@ -50,20 +73,121 @@ public class Storage {
     /**
      * Saves a list of tasks to the specified file (data/dardata.txt).
      * <p>
-     * Each task is converted into data format before being saved.
+     * Each task is converted into data format before being saved, or into the binary format
+     * if this storage was created with {@link StorageFormat#BINARY}.
      * If an error occurs during writing, an error message is displayed.
      *
      * @param tasks The list of tasks to save.
      */
-    public void saveTasks(ArrayList<Task> tasks) {
+    public void saveTasks(List<Task> tasks) {
         assert tasks != null : "Task list cannot be null";
-        try (FileWriter writer = new FileWriter(filePath)) {
-            for (Task task : tasks) {
-                writer.write(task.toDataFormat() + System.lineSeparator());
+        long start = System.nanoTime();
+        if (format == StorageFormat.BINARY) {
+            try {
+                BinaryTaskFormat.write(tasks, Paths.get(filePath));
+            } catch (IOException e) {
+                System.out.println("Error saving tasks: " + e.getMessage());
+            }
+        } else {
+            try (FileWriter writer = new FileWriter(filePath, StandardCharsets.UTF_8)) {
+                for (Task task : tasks) {
+                    writer.write(task.toDataFormat() + System.lineSeparator());
+                }
+            } catch (IOException e) {
+                System.out.println("Error saving tasks: " + e.getMessage());
             }
-        } catch (IOException e) {
-            System.out.println("Error saving tasks: " + e.getMessage());
         }
+        metrics.recordSave(tasks.size(), System.nanoTime() - start);
+        metrics.recordBytesWritten(new File(filePath).length());
+    }
+
+    /**
+     * Persists the addition of a task that has just been appended to the list.
+     * <p>
+     * The default implementation rewrites the whole file; journaling subclasses override this
+     * to write only the change.
+     *
+     * @param tasks The full task list, after the addition.
+     * @param task The task that was added.
+     */
+    public void recordAdd(List<Task> tasks, Task task) {
+        saveUnlessInBatch(tasks);
+    }
+
+    /**
+     * Persists the marking of the task with the given task number.
+     *
+     * @param tasks The full task list, after the change.
+     * @param taskNumber The number of the task that was marked.
+     */
+    public void recordMark(List<Task> tasks, int taskNumber) {
+        saveUnlessInBatch(tasks);
+    }
+
+    /**
+     * Persists the unmarking of the task with the given task number.
+     *
+     * @param tasks The full task list, after the change.
+     * @param taskNumber The number of the task that was unmarked.
+     */
+    public void recordUnmark(List<Task> tasks, int taskNumber) {
+        saveUnlessInBatch(tasks);
+    }
+
+    /**
+     * Persists the deletion of the task that had the given task number.
+     *
+     * @param tasks The full task list, after the deletion.
+     * @param taskNumber The number the deleted task had before it was removed.
+     */
+    public void recordDelete(List<Task> tasks, int taskNumber) {
+        saveUnlessInBatch(tasks);
+    }
+
+    /**
+     * Brings the file up to date with the given tasks, e.g. when the user says bye.
+     * <p>
+     * The default implementation rewrites the whole file.
+     *
+     * @param tasks The full task list.
+     */
+    public void checkpoint(List<Task> tasks) {
+        saveTasks(tasks);
+    }
+
+    /**
+     * Starts a batch of changes. The changes recorded until the batch is committed or aborted
+     * are written together when it is committed.
+     */
+    public void beginBatch() {
+        isInBatch = true;
+    }
+
+    /**
+     * Ends a batch of changes and writes them.
+     * <p>
+     * The default implementation rewrites the whole file once.
+     *
+     * @param tasks The full task list, after the batch.
+     */
+    public void commitBatch(List<Task> tasks) {
+        isInBatch = false;
+        saveTasks(tasks);
+    }
+
+    /**
+     * Ends a batch of changes without writing them, as they have been undone.
+     */
+    public void abortBatch() {
+        isInBatch = false;
+    }
+
+    /**
+     * Releases whatever the storage keeps open, when the program exits.
+     * <p>
+     * The default implementation keeps nothing open, as every change is written straight away.
+     */
+    public void close() {
     }
 
     /**
@@ -71,18 +195,70 @@ public class Storage {
      * <p>
      * Each line in the file is converted into a `Task` object.
      * If an error occurs while reading a line, an error message is displayed, and skipped.
+     * Large files are parsed in parallel, in chunks.
      *
      * @return An array list of tasks loaded from the dardata.txt file.
      */
     public ArrayList<Task> loadTasks() {
+        long start = System.nanoTime();
+        ArrayList<Task> tasks = readTasks();
+        metrics.recordLoad(tasks.size(), System.nanoTime() - start);
+        return tasks;
+    }
+
+    /**
+     * Indexes the lines of the file without parsing them, so that tasks can be parsed when they are first needed.
+     *
+     * @return The index, or null if the tasks have to be loaded with {@link #loadTasks()} instead,
+     *         e.g. because the file is in the binary format or cannot be read.
+     */
+    public TaskFileIndex indexTasks() {
+        if (format == StorageFormat.BINARY) {
+            return null;
+        }
+        try {
+            return TaskFileIndex.of(Paths.get(filePath));
+        } catch (IOException e) {
+            System.out.println("Error reading tasks from file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Reads the tasks from the file, for {@link #loadTasks()}.
+     *
+     * @return An array list of the tasks in the file.
+     */
+    protected ArrayList<Task> readTasks() {
+        File file = new File(filePath);
+        if (format == StorageFormat.BINARY) {
+            try {
+                return BinaryTaskFormat.read(file.toPath());
+            } catch (IOException e) {
+                System.out.println("Error reading tasks from file: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+
+        if (file.length() >= PARALLEL_LOAD_THRESHOLD) {
+            try {
+                return new MappedTaskLoader().load(file.toPath());
+            } catch (IOException e) {
+                System.out.println("Error reading tasks from file: " + e.getMessage());
+                return new ArrayList<>();
+            }
+        }
+
         ArrayList<Task> tasks = new ArrayList<>();
-        try (Scanner scanner = new Scanner(new File(filePath))) {
+        try (Scanner scanner = new Scanner(file, StandardCharsets.UTF_8)) {
             while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                try {
-                    tasks.add(Task.fromDataFormat(line)); // Deserialize each line
-                } catch (Exception e) {
-                    System.out.println("Error loading task: " + line);
+                Task task = parseLine(scanner.nextLine()); // Deserialize each line
+                if (task != null) {
+                    tasks.add(task);
                 }
             }
         } catch (IOException e) {
@@ -90,4 +266,31 @@ public class Storage {
         }
         return tasks;
     }
+
+    /**
+     * Parses one line of a task file. Every loader goes through this, so they all agree on which lines hold
+     * tasks, and so on which task each task number refers to.
+     * <p>
+     * Blank lines hold no task. A line that cannot be parsed is reported and holds no task either.
+     *
+     * @param line The line, without its line break.
+     * @return The task, or null if the line holds none.
+     */
+    static Task parseLine(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return Task.fromDataFormat(line);
+        } catch (Exception e) {
+            System.out.println("Error loading task: " + line);
+            return null;
+        }
+    }
+
+    private void saveUnlessInBatch(List<Task> tasks) {
+        if (!isInBatch) {
+            saveTasks(tasks);
+        }
+    }
 }
@@ -0,0 +1,11 @@
+package dar;
+
+/**
+ * The file formats a {@link Storage} can save tasks in.
+ */
+public enum StorageFormat {
+    /** One human-readable line per task, e.g. "T | 0 | Buy milk". */
+    TEXT,
+    /** The compact binary format written by {@link BinaryTaskFormat}. */
+    BINARY
+}
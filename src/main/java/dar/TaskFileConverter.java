@@ -0,0 +1,55 @@
+package dar;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+import task.Task;
+
+/**
+ * Converts task files between the text and binary formats.
+ * <p>
+ * Usage: {@code TaskFileConverter <text|binary> <source file> <text|binary> <target file>}
+ */
+public class TaskFileConverter {
+
+    private TaskFileConverter() {
+        // Static methods only
+    }
+
+    /**
+     * Reads every task from the source file and writes them to the target file in the target format.
+     *
+     * @param sourcePath The file to convert.
+     * @param sourceFormat The format of the source file.
+     * @param targetPath The file to write. It is replaced if it exists.
+     * @param targetFormat The format to write the target file in.
+     * @return The number of tasks converted.
+     */
+    public static int convert(String sourcePath, StorageFormat sourceFormat,
+            String targetPath, StorageFormat targetFormat) {
+        ArrayList<Task> tasks = new Storage(sourcePath, sourceFormat).loadTasks();
+        new Storage(targetPath, targetFormat).saveTasks(tasks);
+        return tasks.size();
+    }
+
+    /**
+     * Converts a task file from the command line.
+     *
+     * @param args The source format, source file, target format and target file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 4) {
+            System.out.println("Usage: TaskFileConverter <text|binary> <source file> <text|binary> <target file>");
+            return;
+        }
+
+        try {
+            StorageFormat sourceFormat = StorageFormat.valueOf(args[0].toUpperCase(Locale.ROOT));
+            StorageFormat targetFormat = StorageFormat.valueOf(args[2].toUpperCase(Locale.ROOT));
+            int count = convert(args[1], sourceFormat, args[3], targetFormat);
+            System.out.println("Converted " + count + " task(s) to " + args[3]);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown format, use 'text' or 'binary'.");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package dar;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import task.Task;
+
+/**
+ * The TaskFileIndex finds where each line of a task file starts and ends without parsing any of them,
+ * so that tasks can be decoded one at a time when they are first needed.
+ * <p>
+ * The file is read in one go and only scanned for line breaks, which is much faster than parsing every task.
+ * It is not memory-mapped, as a mapped file cannot be replaced on some systems until the mapping is collected.
+ * Blank lines are left out, so the n-th line of the index holds the n-th task unless a line fails to parse.
+ * The index is read-only once built, so any number of threads can decode from it at once.
+ */
+public class TaskFileIndex {
+    private static final int INITIAL_LINES = 1024;
+    /** Larger files are loaded up front instead, as a byte array cannot hold them. */
+    private static final long MAX_FILE_SIZE = Integer.MAX_VALUE - 8;
+
+    private final byte[] data;
+    private int[] lineStarts = new int[INITIAL_LINES];
+    private int[] lineEnds = new int[INITIAL_LINES];
+    private int lineCount;
+
+    private TaskFileIndex(byte[] data) {
+        this.data = data;
+        int lineStart = 0;
+        for (int i = 0; i <= data.length; i++) {
+            if (i == data.length || data[i] == '\n') {
+                int contentEnd = (i > lineStart && data[i - 1] == '\r') ? i - 1 : i;
+                if (contentEnd > lineStart) {
+                    addLine(lineStart, contentEnd);
+                }
+                lineStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Indexes the lines of the given task file.
+     *
+     * @param path The task file, in data format.
+     * @return The index, or null if the file is too large to read at once.
+     * @throws IOException If the file cannot be read.
+     */
+    public static TaskFileIndex of(Path path) throws IOException {
+        if (Files.size(path) > MAX_FILE_SIZE) {
+            return null;
+        }
+        return new TaskFileIndex(Files.readAllBytes(path));
+    }
+
+    /**
+     * Returns the number of lines that are not blank.
+     */
+    public int size() {
+        return lineCount;
+    }
+
+    /**
+     * Parses the task on the given line.
+     * If the line cannot be parsed, an error message is displayed, like when loading the whole file.
+     *
+     * @param index The position of the line among the lines that are not blank, starting at 0.
+     * @return The task, or null if the line cannot be parsed.
+     */
+    public Task decode(int index) {
+        String line = new String(data, lineStarts[index], lineEnds[index] - lineStarts[index], StandardCharsets.UTF_8);
+        return Storage.parseLine(line);
+    }
+
+    private void addLine(int start, int end) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+            lineEnds = Arrays.copyOf(lineEnds, lineCount * 2);
+        }
+        lineStarts[lineCount] = start;
+        lineEnds[lineCount] = end;
+        lineCount++;
+    }
+}
@@ -40,6 +40,27 @@ public class Ui {
         return ("My apologies, I don't understand what you mean! Please let my dev know :D \n");
     }
 
+    /**
+     * Displays error message when the page number given to "list" is not a positive number
+     */
+    public String showInvalidPageMessage() {
+        return ("Please give a page number from 1 onwards, e.g. 'list 2'.\n");
+    }
+
+    /**
+     * Displays message when "next" is used before "list" or "find"
+     */
+    public String showNoMorePagesMessage() {
+        return ("There's nothing to continue, try 'list' or 'find' first.\n");
+    }
+
+    /**
+     * Displays message when a batch of commands is undone because one of them failed
+     */
+    public String showBatchAbortedMessage(int commandNumber) {
+        return ("Command " + commandNumber + " failed, so none of the commands were applied.\n");
+    }
+
     /**
      * Displays exit message, when input is "bye"
      * <p>
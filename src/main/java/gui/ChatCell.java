@@ -0,0 +1,45 @@
+package gui;
+
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+
+/**
+ * A cell of the chat list, showing one message as a dialog box.
+ * <p>
+ * The list only creates enough cells to fill the window and reuses them while scrolling, so each cell
+ * creates its two dialog boxes (one for each speaker) once and only changes their text afterwards.
+ */
+public class ChatCell extends ListCell<ChatMessage> {
+    private static final double SCROLL_BAR_ALLOWANCE = 20;
+
+    private final DialogBox userDialog;
+    private final DialogBox darDialog;
+
+    /**
+     * Constructs a ChatCell for the given list.
+     *
+     * @param listView The list the cell belongs to, whose width the dialog boxes wrap their text to.
+     * @param userImage The picture shown next to the user's messages.
+     * @param darImage The picture shown next to Dar's messages.
+     */
+    public ChatCell(ListView<ChatMessage> listView, Image userImage, Image darImage) {
+        userDialog = DialogBox.getUserDialog("", userImage);
+        darDialog = DialogBox.getDukeDialog("", darImage);
+        userDialog.maxWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+        darDialog.maxWidthProperty().bind(listView.widthProperty().subtract(SCROLL_BAR_ALLOWANCE));
+        setPrefWidth(0); // Let the cell follow the list's width instead of widening it
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            setGraphic(null);
+            return;
+        }
+        DialogBox dialog = message.isFromUser() ? userDialog : darDialog;
+        dialog.setText(message.getText());
+        setGraphic(dialog);
+    }
+}
@@ -0,0 +1,148 @@
+package gui;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javafx.collections.ObservableList;
+
+/**
+ * The ChatHistory keeps the most recent chat messages in the list shown by the chat window.
+ * <p>
+ * Once the list holds more than the maximum number of messages, the oldest quarter is removed from it,
+ * so memory use does not grow with the length of the session. If a history file is given, the removed
+ * messages are appended to it first, on a background thread so the JavaFX application thread never waits
+ * for the disk. Once the file grows past its size limit it is moved to a ".old" file next to it, replacing
+ * the previous one, so at most about twice the limit is kept on disk.
+ * <p>
+ * Pending messages, e.g. a reply still showing "...", are never moved out: removal stops at the first one,
+ * so they can still be replaced and the file keeps the messages in order.
+ */
+public class ChatHistory {
+    private final ObservableList<ChatMessage> messages;
+    private final int maxMessages;
+    private final Path historyFile;
+    private final long maxHistoryBytes;
+    private final ExecutorService writer;
+
+    /**
+     * Constructs a ChatHistory that keeps messages in the given list and discards older ones.
+     *
+     * @param messages The list of messages shown in the chat window.
+     * @param maxMessages The most messages kept in the list.
+     */
+    public ChatHistory(ObservableList<ChatMessage> messages, int maxMessages) {
+        this(messages, maxMessages, null, 0);
+    }
+
+    /**
+     * Constructs a ChatHistory that keeps messages in the given list.
+     *
+     * @param messages The list of messages shown in the chat window.
+     * @param maxMessages The most messages kept in the list.
+     * @param historyFile The file older messages are appended to, or null to discard them.
+     * @param maxHistoryBytes The size past which the history file is moved aside and a new one started.
+     */
+    public ChatHistory(ObservableList<ChatMessage> messages, int maxMessages, Path historyFile,
+            long maxHistoryBytes) {
+        assert maxMessages >= 4 : "History must hold at least a few messages";
+        assert historyFile == null || maxHistoryBytes > 0 : "History file must have a size limit";
+        this.messages = messages;
+        this.maxMessages = maxMessages;
+        this.historyFile = historyFile;
+        this.maxHistoryBytes = maxHistoryBytes;
+        this.writer = (historyFile == null) ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dar-chat-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a message to the end of the history, moving the oldest messages out if it is full.
+     *
+     * @param message The message to add.
+     */
+    public void add(ChatMessage message) {
+        messages.add(message);
+        if (messages.size() > maxMessages) {
+            int removedCount = 0;
+            while (removedCount < maxMessages / 4 && !messages.get(removedCount).isPending()) {
+                removedCount++;
+            }
+            if (removedCount == 0) {
+                return; // The oldest message is pending, so try again once more messages are added
+            }
+            List<ChatMessage> removed = new ArrayList<>(messages.subList(0, removedCount));
+            messages.remove(0, removedCount);
+            spill(removed);
+        }
+    }
+
+    /**
+     * Replaces a message that is still in the history, e.g. when a pending reply is ready.
+     * Does nothing if the message has already been moved out.
+     *
+     * @param oldMessage The message to replace.
+     * @param newMessage The message to put in its place.
+     */
+    public void replace(ChatMessage oldMessage, ChatMessage newMessage) {
+        // Recent messages are near the end, so search from there
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) == oldMessage) {
+                messages.set(i, newMessage);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finishes writing the messages already moved out, waiting a few seconds at most, and stops the writer.
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void spill(List<ChatMessage> removed) {
+        if (historyFile == null) {
+            return;
+        }
+        // Format on this thread, as the messages are only read here
+        List<String> lines = new ArrayList<>(removed.size());
+        for (ChatMessage message : removed) {
+            lines.add(message.toHistoryFormat());
+        }
+        writer.execute(() -> append(lines));
+    }
+
+    private void append(List<String> lines) {
+        try {
+            Files.createDirectories(historyFile.toAbsolutePath().getParent());
+            if (Files.exists(historyFile) && Files.size(historyFile) >= maxHistoryBytes) {
+                Path oldFile = Paths.get(historyFile + ".old");
+                Files.move(historyFile, oldFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.write(historyFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.out.println("Error saving chat history: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package gui;
+
+/**
+ * Represents one message in the chat, either from the user or from Dar.
+ * <p>
+ * Messages are plain data, so the chat history holds only these and not the nodes that display them.
+ */
+public class ChatMessage {
+    private final String text;
+    private final boolean isFromUser;
+    private final boolean isPending;
+
+    /**
+     * Constructs a ChatMessage.
+     *
+     * @param text The text of the message.
+     * @param isFromUser Whether the user sent the message, rather than Dar.
+     */
+    public ChatMessage(String text, boolean isFromUser) {
+        this(text, isFromUser, false);
+    }
+
+    /**
+     * Constructs a ChatMessage that may stand in for a reply that is not ready yet.
+     *
+     * @param text The text of the message.
+     * @param isFromUser Whether the user sent the message, rather than Dar.
+     * @param isPending Whether the message will be replaced once the reply is ready.
+     */
+    public ChatMessage(String text, boolean isFromUser, boolean isPending) {
+        this.text = text;
+        this.isFromUser = isFromUser;
+        this.isPending = isPending;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public boolean isFromUser() {
+        return this.isFromUser;
+    }
+
+    public boolean isPending() {
+        return this.isPending;
+    }
+
+    /**
+     * Returns the message as one line of the history file: "U" or "D", then the text with line breaks escaped.
+     */
+    public String toHistoryFormat() {
+        return (isFromUser ? "U" : "D") + " | " + text.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
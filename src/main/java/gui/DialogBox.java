@@ -1,14 +1,11 @@
 package gui;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.net.URL;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -17,44 +14,72 @@ import javafx.scene.layout.HBox;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * <p>
+ * The layout is defined in "/view/DialogBox.fxml", which every dialog box is loaded from, so any change to the
+ * file takes effect. Loading is slow compared with changing the text, but the chat list only creates a few
+ * dialog boxes for each cell in view and reuses them for every message, so the FXML is not loaded per message.
  */
 public class DialogBox extends HBox {
+    private static final URL FXML_FILE = MainWindow.class.getResource("/view/DialogBox.fxml");
+
     @FXML
     private Label dialog;
     @FXML
     private ImageView displayPicture;
 
-    private DialogBox(String text, Image img) {
+    /**
+     * Constructs an empty dialog box, to be filled in by loading the FXML.
+     */
+    private DialogBox() {
+    }
+
+    /**
+     * Creates a dialog box by loading and parsing the FXML.
+     *
+     * @param text The text in the dialog box.
+     * @param img The picture of the speaker.
+     * @return The new dialog box.
+     */
+    static DialogBox loadFromFxml(String text, Image img) {
+        DialogBox dialogBox = new DialogBox();
         try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
+            FXMLLoader fxmlLoader = new FXMLLoader(FXML_FILE);
+            fxmlLoader.setController(dialogBox);
+            fxmlLoader.setRoot(dialogBox);
             fxmlLoader.load();
         } catch (IOException e) {
             e.printStackTrace();
         }
 
+        dialogBox.dialog.setText(text);
+        dialogBox.displayPicture.setImage(img);
+        return dialogBox;
+    }
+
+    /**
+     * Replaces the text in the dialog box, e.g. when a reply that was being worked out is ready.
+     *
+     * @param text The new text.
+     */
+    public void setText(String text) {
         dialog.setText(text);
-        displayPicture.setImage(img);
     }
 
     /**
      * Flips the dialog box such that the ImageView is on the left and text on the right.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
+        getChildren().setAll(displayPicture, dialog);
         setAlignment(Pos.TOP_LEFT);
         dialog.getStyleClass().add("reply-label");
     }
 
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        return loadFromFxml(text, img);
     }
 
     public static DialogBox getDukeDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
+        var db = loadFromFxml(text, img);
         db.flip();
         return db;
     }
@@ -1,12 +1,35 @@
 package gui;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+import dar.DarServer;
+import dar.ScriptRunner;
 import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * <p>
+ * Run with "--server [--bind (address)] [port]" to start Dar as a headless server instead of the GUI,
+ * or with "--script (file)" to run a file of commands.
  */
 public class Launcher {
-    public static void main(String[] args) {
+    /**
+     * Starts the GUI, or the server or script runner if the first argument is "--server" or "--script".
+     *
+     * @param args The command-line arguments.
+     * @throws IOException If the server cannot be started or the script cannot be read.
+     * @throws InterruptedException If interrupted while serving.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            DarServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--script")) {
+            ScriptRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         Application.launch(Main.class, args);
     }
 }
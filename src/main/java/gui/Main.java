@@ -16,6 +16,7 @@ import javafx.stage.Stage;
 public class Main extends Application {
 
     private Dar dar = new Dar();
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
@@ -25,10 +26,22 @@ public class Main extends Application {
             Scene scene = new Scene(ap);
             stage.setTitle("Dar the Chatbot");
             stage.setScene(scene);
-            fxmlLoader.<MainWindow>getController().setDar(dar); // inject the Duke instance
+            mainWindow = fxmlLoader.<MainWindow>getController();
+            mainWindow.setDar(dar); // inject the Duke instance
             stage.show();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Lets the commands already entered finish, then saves a checkpoint of the tasks and closes their storage.
+     */
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.close();
+        }
+        dar.close();
+    }
 }
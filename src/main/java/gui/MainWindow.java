@@ -1,39 +1,72 @@
 package gui;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import dar.Dar;
 import dar.Ui;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 
 /**
  * Controller for the main GUI.
+ * <p>
+ * Commands are run on a background thread so that slow ones, such as listing a large task file, do not freeze
+ * the window. Each reply appears as "..." until it is ready. Commands run one at a time in the order they were
+ * entered, so replies are filled in in that order too.
+ * <p>
+ * The chat is shown in a list that only creates nodes for the messages in view, and only the most recent
+ * messages are kept in memory. Older ones are discarded, or moved to "./data/chat-history.txt" if Dar is started
+ * with {@code -Ddar.saveChatHistory=true}.
  */
 public class MainWindow extends AnchorPane {
 
     private static final Ui ui = new Ui();
+    private static final String PENDING_REPLY = "...";
+    private static final int MAX_MESSAGES = 500;
+    private static final Path HISTORY_FILE = Paths.get("./data/chat-history.txt");
+    private static final long MAX_HISTORY_BYTES = 1024 * 1024;
+    /** How long closing waits for the commands already entered; any still running are saved when they finish. */
+    private static final long COMMAND_SHUTDOWN_SECONDS = 10;
 
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
 
     private Dar dar;
+    private ChatHistory chatHistory;
+
+    private final ExecutorService commandRunner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dar-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/dar.png"));
     private Image darImage = new Image(this.getClass().getResourceAsStream("/images/boy.png"));
 
+    /**
+     * Sets up the chat list to show each message in a reusable dialog box cell.
+     */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setCellFactory(listView -> new ChatCell(listView, userImage, darImage));
+        if (Boolean.getBoolean("dar.saveChatHistory")) {
+            chatHistory = new ChatHistory(dialogList.getItems(), MAX_MESSAGES, HISTORY_FILE, MAX_HISTORY_BYTES);
+        } else {
+            chatHistory = new ChatHistory(dialogList.getItems(), MAX_MESSAGES);
+        }
     }
 
     /** Injects the Duke instance */
@@ -42,23 +75,57 @@ public class MainWindow extends AnchorPane {
 
         // Show the greeting message when the chatbot starts
         String greeting = ui.showGreetingMessage();
-        dialogContainer.getChildren().add(
-                DialogBox.getDukeDialog(greeting, darImage)
-        );
+        showMessage(new ChatMessage(greeting, false));
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds two messages to the chat, one echoing user input and the other for Duke's reply.
+     * Clears the user input straight away.
+     * <p>
+     * The reply shows "..." while the command runs in the background, and is filled in on the JavaFX
+     * application thread once it is ready.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = dar.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getDukeDialog(response, darImage)
-        );
+        ChatMessage pendingReply = new ChatMessage(PENDING_REPLY, false, true);
+        showMessage(new ChatMessage(input, true));
+        showMessage(pendingReply);
         userInput.clear();
+
+        commandRunner.execute(() -> {
+            String response = runCommand(input);
+            Platform.runLater(() -> chatHistory.replace(pendingReply, new ChatMessage(response, false)));
+        });
+    }
+
+    /**
+     * Waits for the commands already entered to finish and finishes saving the chat history,
+     * when the window is closed.
+     */
+    public void close() {
+        commandRunner.shutdown();
+        try {
+            commandRunner.awaitTermination(COMMAND_SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        chatHistory.close();
+    }
+
+    private void showMessage(ChatMessage message) {
+        chatHistory.add(message);
+        dialogList.scrollTo(dialogList.getItems().size() - 1);
+    }
+
+    /**
+     * Returns Dar's response to the input, or an error message if the command failed unexpectedly.
+     */
+    private String runCommand(String input) {
+        try {
+            return dar.getResponse(input);
+        } catch (RuntimeException e) {
+            return "Error running command: " + e.getMessage();
+        }
     }
 }
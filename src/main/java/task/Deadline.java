@@ -3,9 +3,6 @@ package task;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Represents a Deadline task, which includes a description and a deadline with both date and time.
@@ -23,96 +20,108 @@ public class Deadline extends Task {
     private LocalTime deadlineTime;
 
     /**
-     * Constructs a Deadline task and extracts its deadline details.
+     * Constructs a Deadline task and extracts its deadline details, e.g. from a line of the task file.
+     * <p>
+     * Words such as "tomorrow" are not taken as dates, as a stored deadline never holds them: relative dates
+     * are written out in full when the user enters them, so any such word is part of the user's own text.
      *
      * @param description The task description, including the "by" keyword followed by the deadline.
      * @throws IllegalArgumentException If the deadline format is invalid.
      */
     public Deadline(String description) throws IllegalArgumentException {
         super(description);
-        parseDescription(description);
+        parseDescription(description, new DeadlineParser(null, false));
     }
 
     /**
-     * Parses the task description to extract the deadline details.
+     * Constructs a Deadline task as entered by the user, taking relative dates such as "tomorrow" to count
+     * from the given date.
      *
-     * @param description The input string containing the task details and deadline.
+     * @param description The task description, including the "by" keyword followed by the deadline.
+     * @param today The date that relative dates count from, or null for the current date.
      * @throws IllegalArgumentException If the deadline format is invalid.
      */
-    private void parseDescription(String description) {
-        String[] descriptionParts = description.split("by");
-        this.description = descriptionParts[0].trim();
-        this.afterBy = (descriptionParts.length > 1) ? descriptionParts[1].trim() : "-";
-        if (!extractAndSaveDateTime(afterBy)) {
-            decrementTotalTasksCount();
-            throw new IllegalArgumentException("Invalid date or time format. "
-                    + "Declare date and time after 'by' in DD/MM/YYYY and/or HHMM format.");
-        }
+    Deadline(String description, LocalDate today) throws IllegalArgumentException {
+        super(description);
+        parseDescription(description, new DeadlineParser(today, true));
     }
 
     /**
-     * Extracts and saves a valid date and/or time from the given description.
+     * Constructs a Deadline task as entered by the user, taking relative dates such as "tomorrow" to count
+     * from the current date.
      *
-     * @param description The input string containing date and/or time.
-     * @return true if a valid date or time is found, false otherwise.
+     * @param description The task description, including the "by" keyword followed by the deadline.
+     * @return The deadline.
+     * @throws IllegalArgumentException If the deadline format is invalid.
      */
-    private boolean extractAndSaveDateTime(String description) {
-        List<String> numberSequences = extractNumericSequences(description);
-        return parseDateTime(numberSequences);
+    public static Deadline fromInput(String description) throws IllegalArgumentException {
+        return new Deadline(description, null);
     }
 
     /**
-     * Extracts numeric sequences from a given string, capturing potential date or time values.
+     * Constructs a Deadline task from an already parsed date and/or time, e.g. when loading a binary task file.
      *
-     * @param description The input string that may contain date and/or time.
-     * @return A list of extracted numeric sequences.
+     * @param description The task description, without the deadline.
+     * @param deadlineDate The date of the deadline, or null if it has none.
+     * @param deadlineTime The time of the deadline, or null if it has none.
+     * @throws IllegalArgumentException If neither a date nor a time is given.
      */
-    private List<String> extractNumericSequences(String description) {
-        List<String> numberSequences = new ArrayList<>();
-        StringBuilder currentNumber = new StringBuilder();
-
-        for (char ch : description.toCharArray()) {
-            if (Character.isDigit(ch) || ch == '/') {
-                currentNumber.append(ch);
-            } else {
-                if (currentNumber.length() > 0) {
-                    numberSequences.add(currentNumber.toString());
-                    currentNumber.setLength(0);
-                }
-            }
+    public Deadline(String description, LocalDate deadlineDate, LocalTime deadlineTime) {
+        super(description);
+        if (deadlineDate == null && deadlineTime == null) {
+            throw new IllegalArgumentException("A deadline needs a date or a time.");
         }
+        this.description = description;
+        this.deadlineDate = deadlineDate;
+        this.deadlineTime = deadlineTime;
+        this.afterBy = formatAfterBy(deadlineDate, deadlineTime);
+    }
 
-        if (currentNumber.length() > 0) {
-            numberSequences.add(currentNumber.toString());
+    /**
+     * Formats a date and/or time the way it is typed after "by", e.g. "12/12/2222 1600".
+     */
+    private static String formatAfterBy(LocalDate date, LocalTime time) {
+        if (date == null) {
+            return time.format(TIME_FORMATTER);
+        } else if (time == null) {
+            return date.format(DATE_FORMATTER);
         }
-
-        return numberSequences;
+        return date.format(DATE_FORMATTER) + " " + time.format(TIME_FORMATTER);
     }
 
     /**
-     * Parses the extracted numeric sequences to determine if they represent a valid date or time.
+     * Parses the task description to extract the deadline details.
+     * <p>
+     * The description is everything before the first "by", and the deadline is the text after it, up to
+     * any second "by". A deadline given relative to today, e.g. "tomorrow", is kept as the full date so
+     * that it still means the same day when the task is loaded again.
      *
-     * @param numberSequences A list of extracted numeric sequences to be checked.
-     * @return true if a valid date or time is found, false otherwise.
+     * @param description The input string containing the task details and deadline.
+     * @param parser The parser for the deadline, which decides whether relative dates are taken.
+     * @throws IllegalArgumentException If the deadline format is invalid.
      */
-    private boolean parseDateTime(List<String> numberSequences) {
-        boolean isValidDateOrTime = false;
-
-        for (String element : numberSequences) {
-            try {
-                if (element.matches("\\d{2}/\\d{2}/\\d{4}")) {
-                    deadlineDate = LocalDate.parse(element, DATE_FORMATTER);
-                    isValidDateOrTime = true;
-                } else if (element.matches("\\d{4}")) {
-                    deadlineTime = LocalTime.parse(element, TIME_FORMATTER);
-                    isValidDateOrTime = true;
-                }
-            } catch (DateTimeParseException e) {
-                return false; // Invalid date/time format
-            }
+    private void parseDescription(String description, DeadlineParser parser) {
+        int byIndex = description.indexOf("by");
+        if (byIndex < 0) {
+            this.description = description.trim();
+            this.afterBy = "-";
+        } else {
+            int nextByIndex = description.indexOf("by", byIndex + 2);
+            int afterByEnd = (nextByIndex < 0) ? description.length() : nextByIndex;
+            this.description = description.substring(0, byIndex).trim();
+            this.afterBy = (afterByEnd > byIndex + 2) ? description.substring(byIndex + 2, afterByEnd).trim() : "-";
         }
 
-        return isValidDateOrTime;
+        if (!parser.parse(afterBy)) {
+            throw new IllegalArgumentException("Invalid date or time format. " + parser.getError()
+                    + " Declare date and time after 'by' in DD/MM/YYYY, YYYY-MM-DD, today, tomorrow or a weekday,"
+                    + " and/or HHMM format.");
+        }
+        this.deadlineDate = parser.getDate();
+        this.deadlineTime = parser.getTime();
+        if (parser.isRelative()) {
+            this.afterBy = formatAfterBy(deadlineDate, deadlineTime);
+        }
     }
 
     public String getDeadlineDate() {
@@ -123,18 +132,26 @@ public class Deadline extends Task {
         return (deadlineTime != null) ? deadlineTime.format(DISPLAY_TIME_FORMATTER) : "No time set";
     }
 
+    public LocalDate getDueDate() {
+        return deadlineDate;
+    }
+
+    public LocalTime getDueTime() {
+        return deadlineTime;
+    }
+
     @Override
     public String getDescription() {
         return this.description;
     }
 
     @Override
-    public String toString() {
+    protected String render() {
         String formattedDate = (deadlineDate != null)
-                ? deadlineDate.format(DateTimeFormatter.ofPattern("dd MMM yyyy"))
+                ? deadlineDate.format(DISPLAY_DATE_FORMATTER)
                 : "-";
         String formattedTime = (deadlineTime != null)
-                ? deadlineTime.format(DateTimeFormatter.ofPattern("ha"))
+                ? deadlineTime.format(DISPLAY_TIME_FORMATTER)
                 : "-";
 
         return "[D][" + this.getStatusIcon() + "] " + this.description
@@ -0,0 +1,334 @@
+package task;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Parses the date and/or time written after "by" in a deadline, in one pass over the text and without copying
+ * any of it out.
+ * <p>
+ * These are recognised, and any other text is ignored:
+ * <ul>
+ *   <li>dates as "DD/MM/YYYY" or "YYYY-MM-DD", the latter optionally followed by "T" and a time,
+ *   <li>times as "HHMM" or "HH:MM",
+ *   <li>"today", "tomorrow" and the days of the week, meaning the next such day from today on. A day may be
+ *       abbreviated the usual ways, e.g. "wed", "tues" or "thurs", but then no other word may follow it, so that
+ *       "sun cream" or "sat exam" is not taken as a date. These are only recognised if the parser accepts
+ *       relative dates, which it does for new user input but not for stored deadlines.
+ * </ul>
+ * If a date or time is given more than once, the last one is used. A day past the end of its month, e.g.
+ * "31/02/2025", means the last day of the month. Text that is shaped like a date or time but is not one, e.g.
+ * "12/13/2025", makes the whole text invalid; {@link #parse(String)} then returns false and {@link #getError()}
+ * says what is wrong, so no exception is thrown for the common mistakes.
+ */
+class DeadlineParser {
+    private static final String[] DAY_NAMES = {
+        "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"
+    };
+    /** The abbreviations of each day in {@link #DAY_NAMES}. */
+    private static final String[][] DAY_ABBREVIATIONS = {
+        {"mon"}, {"tue", "tues"}, {"wed"}, {"thu", "thur", "thurs"}, {"fri"}, {"sat"}, {"sun"}
+    };
+
+    private LocalDate today;
+    private final boolean acceptsRelativeDates;
+    private int year;
+    private int month;
+    private int day;
+    private int hour;
+    private int minute;
+    private boolean hasDate;
+    private boolean hasTime;
+    private boolean isRelative;
+    private String error;
+
+    /**
+     * Constructs a parser that takes "today" to be the current date, read only if the text needs it.
+     */
+    DeadlineParser() {
+        this(null);
+    }
+
+    /**
+     * Constructs a parser that takes "today" to be the given date.
+     *
+     * @param today The date that relative dates count from.
+     */
+    DeadlineParser(LocalDate today) {
+        this(today, true);
+    }
+
+    /**
+     * Constructs a parser that takes "today" to be the given date, or that ignores relative dates altogether.
+     *
+     * @param today The date that relative dates count from, or null for the current date.
+     * @param acceptsRelativeDates Whether "today", "tomorrow" and the days of the week are taken as dates.
+     */
+    DeadlineParser(LocalDate today, boolean acceptsRelativeDates) {
+        this.today = today;
+        this.acceptsRelativeDates = acceptsRelativeDates;
+    }
+
+    /**
+     * Parses a date and/or time out of the text, replacing the result of any previous parse.
+     *
+     * @param text The text written after "by".
+     * @return true if a valid date or time was found, false otherwise.
+     */
+    boolean parse(String text) {
+        hasDate = false;
+        hasTime = false;
+        isRelative = false;
+        error = null;
+
+        int end = text.length();
+        int i = 0;
+        while (i < end && error == null) {
+            char c = text.charAt(i);
+            if (isDigit(c) || c == '/') {
+                i = readNumber(text, i, end);
+            } else if (isLetter(c)) {
+                i = readWord(text, i, end);
+            } else {
+                i++;
+            }
+        }
+
+        if (error == null && !hasDate && !hasTime) {
+            error = "No date or time was found.";
+        }
+        return error == null;
+    }
+
+    /**
+     * Returns the date found by the last parse, or null if it had none.
+     */
+    LocalDate getDate() {
+        if (!hasDate) {
+            return null;
+        }
+        int lastDay = Month.of(month).length(Year.isLeap(year));
+        return LocalDate.of(year, month, Math.min(day, lastDay));
+    }
+
+    /**
+     * Returns the time found by the last parse, or null if it had none.
+     */
+    LocalTime getTime() {
+        return hasTime ? LocalTime.of(hour, minute) : null;
+    }
+
+    /**
+     * Returns whether the date of the last parse was given relative to today, e.g. "tomorrow",
+     * so it has to be written out in full to mean the same day later.
+     */
+    boolean isRelative() {
+        return isRelative;
+    }
+
+    /**
+     * Returns what was wrong with the text of the last parse, or null if it was valid.
+     */
+    String getError() {
+        return error;
+    }
+
+    /**
+     * Reads the run of digits and slashes starting at the given index as a date or time, if it is shaped like one.
+     *
+     * @return The index just after the run.
+     */
+    private int readNumber(String text, int start, int end) {
+        int runEnd = start;
+        while (runEnd < end && (isDigit(text.charAt(runEnd)) || text.charAt(runEnd) == '/')) {
+            runEnd++;
+        }
+
+        int length = runEnd - start;
+        if (length == 10 && areDigits(text, start, 2) && text.charAt(start + 2) == '/'
+                && areDigits(text, start + 3, 2) && text.charAt(start + 5) == '/' && areDigits(text, start + 6, 4)) {
+            setDate(number(text, start + 6, 4), number(text, start + 3, 2), number(text, start, 2));
+        } else if (length == 4 && areDigits(text, start, 4)) {
+            if (isIsoDate(text, start, end)) {
+                return readIsoDate(text, start, end);
+            }
+            setTime(number(text, start, 2), number(text, start + 2, 2));
+        } else if (length == 2 && areDigits(text, start, 2) && isColonTime(text, start, end)) {
+            setTime(number(text, start, 2), number(text, start + 3, 2));
+            return start + 5;
+        }
+        return runEnd;
+    }
+
+    /**
+     * Reads "YYYY-MM-DD", and a time after it if it is joined by "T", e.g. "2025-12-31T16:00".
+     *
+     * @return The index just after the date, or after the time if there is one.
+     */
+    private int readIsoDate(String text, int start, int end) {
+        setDate(number(text, start, 4), number(text, start + 5, 2), number(text, start + 8, 2));
+        int next = start + 10;
+        if (next < end && (text.charAt(next) == 'T' || text.charAt(next) == 't')) {
+            int timeStart = next + 1;
+            if (isColonTime(text, timeStart, end)) {
+                setTime(number(text, timeStart, 2), number(text, timeStart + 3, 2));
+                return timeStart + 5;
+            } else if (timeStart + 4 <= end && areDigits(text, timeStart, 4) && isBoundary(text, timeStart + 4, end)) {
+                setTime(number(text, timeStart, 2), number(text, timeStart + 2, 2));
+                return timeStart + 4;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Reads the run of letters starting at the given index as "today", "tomorrow" or a day of the week.
+     *
+     * @return The index just after the run.
+     */
+    private int readWord(String text, int start, int end) {
+        int wordEnd = start;
+        while (wordEnd < end && isLetter(text.charAt(wordEnd))) {
+            wordEnd++;
+        }
+
+        int length = wordEnd - start;
+        if (!acceptsRelativeDates) {
+            return wordEnd;
+        } else if (isWord(text, start, length, "today")) {
+            setRelativeDate(today());
+        } else if (isWord(text, start, length, "tomorrow")) {
+            setRelativeDate(today().plusDays(1));
+        } else {
+            for (int i = 0; i < DAY_NAMES.length; i++) {
+                boolean isAbbreviated = isAbbreviation(text, start, length, DAY_ABBREVIATIONS[i])
+                        && !isWordNext(text, wordEnd, end);
+                if (isAbbreviated || isWord(text, start, length, DAY_NAMES[i])) {
+                    setRelativeDate(today().with(TemporalAdjusters.nextOrSame(DayOfWeek.of(i + 1))));
+                    break;
+                }
+            }
+        }
+        return wordEnd;
+    }
+
+    private static boolean isAbbreviation(String text, int start, int length, String[] abbreviations) {
+        for (String abbreviation : abbreviations) {
+            if (isWord(text, start, length, abbreviation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the next thing after the spaces at the given index is a word.
+     */
+    private static boolean isWordNext(String text, int index, int end) {
+        while (index < end && text.charAt(index) == ' ') {
+            index++;
+        }
+        return index < end && isLetter(text.charAt(index));
+    }
+
+    private void setDate(int year, int month, int day) {
+        if (month < 1 || month > 12) {
+            error = "The month must be from 01 to 12.";
+        } else if (day < 1 || day > 31) {
+            error = "The day must be from 01 to 31.";
+        } else if (year < 1) {
+            error = "The year must be from 0001 on.";
+        } else {
+            this.year = year;
+            this.month = month;
+            this.day = day;
+            hasDate = true;
+            isRelative = false;
+        }
+    }
+
+    private void setRelativeDate(LocalDate date) {
+        setDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+        isRelative = true;
+    }
+
+    /**
+     * Sets the time, taking "2400" as midnight like the "HHmm" formatter used to.
+     */
+    private void setTime(int hour, int minute) {
+        if (minute > 59) {
+            error = "The minutes must be from 00 to 59.";
+        } else if (hour > 24 || (hour == 24 && minute > 0)) {
+            error = "The hour must be from 00 to 23.";
+        } else {
+            this.hour = hour % 24;
+            this.minute = minute;
+            hasTime = true;
+        }
+    }
+
+    private LocalDate today() {
+        if (today == null) {
+            today = LocalDate.now();
+        }
+        return today;
+    }
+
+    /**
+     * Returns whether "-MM-DD" follows the four digits at the given index, and nothing but a "T" joins on to it.
+     */
+    private static boolean isIsoDate(String text, int start, int end) {
+        return start + 10 <= end && text.charAt(start + 4) == '-' && areDigits(text, start + 5, 2)
+                && text.charAt(start + 7) == '-' && areDigits(text, start + 8, 2)
+                && (isBoundary(text, start + 10, end) || text.charAt(start + 10) == 'T'
+                        || text.charAt(start + 10) == 't');
+    }
+
+    /**
+     * Returns whether "HH:MM" starts at the given index.
+     */
+    private static boolean isColonTime(String text, int start, int end) {
+        return start + 5 <= end && areDigits(text, start, 2) && text.charAt(start + 2) == ':'
+                && areDigits(text, start + 3, 2) && isBoundary(text, start + 5, end);
+    }
+
+    /**
+     * Returns whether a date or time may end at the given index, i.e. it is not followed by a digit or a slash.
+     */
+    private static boolean isBoundary(String text, int index, int end) {
+        return index >= end || (!isDigit(text.charAt(index)) && text.charAt(index) != '/');
+    }
+
+    private static boolean isWord(String text, int start, int length, String word) {
+        return length == word.length() && text.regionMatches(true, start, word, 0, length);
+    }
+
+    private static boolean areDigits(String text, int start, int count) {
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -1,15 +1,28 @@
 package task;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
 /**
  * Represents an Event task, which includes a description, start time, and end time.
  * <p>
  * This class extends the Task class and adds functionality for handling time-bound events.
+ * The start and end are kept as typed, and are also parsed into dates and times when they are written as
+ * "DD/MM/YYYY HHMM" or "DD/MM/YYYY" (the end may also be just "HHMM", on the day the event starts).
  */
 public class Event extends Task {
 
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HHmm");
+
     private String afterFrom;
     private String afterTo;
     private String description;
+    private LocalDateTime start;
+    private LocalDateTime end;
 
     /**
      * Constructs an Event task and extracts its time range.
@@ -21,6 +34,23 @@ public class Event extends Task {
     public Event(String description) {
         super(description);
         parseDescription(description);
+        parseTimes();
+    }
+
+    /**
+     * Constructs an Event task from an already split description and time range,
+     * e.g. when loading a binary task file.
+     *
+     * @param description The event description, without the time range.
+     * @param afterFrom The text after "from", or "-" if there is none.
+     * @param afterTo The text after "to", or "-" if there is none.
+     */
+    public Event(String description, String afterFrom, String afterTo) {
+        super(description);
+        this.description = description;
+        this.afterFrom = afterFrom;
+        this.afterTo = afterTo;
+        parseTimes();
     }
 
     /**
@@ -50,6 +80,71 @@ public class Event extends Task {
         }
     }
 
+    /**
+     * Parses the start and end of the event into dates and times, if they are written in a known format.
+     * An event without a start and end, or ending before it starts, is left without them.
+     */
+    private void parseTimes() {
+        LocalDateTime parsedStart = parseMoment(afterFrom, null, false);
+        LocalDateTime parsedEnd = (parsedStart != null)
+                ? parseMoment(afterTo, parsedStart.toLocalDate(), true)
+                : null;
+        if (parsedEnd != null && !parsedEnd.isBefore(parsedStart)) {
+            this.start = parsedStart;
+            this.end = parsedEnd;
+        }
+    }
+
+    /**
+     * Parses a moment written as "DD/MM/YYYY HHMM" or "DD/MM/YYYY" (taken as the start of that day).
+     *
+     * @param text The text to parse.
+     * @return The moment, or null if the text is not in one of those formats.
+     */
+    public static LocalDateTime parseMoment(String text) {
+        return parseMoment(text, null, false);
+    }
+
+    /**
+     * Parses a moment written as "DD/MM/YYYY HHMM", "DD/MM/YYYY" or, if a default day is given, "HHMM".
+     *
+     * @param text The text to parse.
+     * @param defaultDay The day of a moment given only as a time, or null if a date is required.
+     * @param isEnd Whether a moment given only as a date means the end of the day rather than the start.
+     * @return The moment, or null if the text is not in one of the formats.
+     */
+    private static LocalDateTime parseMoment(String text, LocalDate defaultDay, boolean isEnd) {
+        String[] parts = text.trim().split("\\s+");
+        try {
+            if (parts.length == 2 && parts[0].matches("\\d{2}/\\d{2}/\\d{4}") && parts[1].matches("\\d{4}")) {
+                return LocalDate.parse(parts[0], DATE_FORMATTER).atTime(LocalTime.parse(parts[1], TIME_FORMATTER));
+            } else if (parts.length == 1 && parts[0].matches("\\d{2}/\\d{2}/\\d{4}")) {
+                LocalDate day = LocalDate.parse(parts[0], DATE_FORMATTER);
+                return isEnd ? day.atTime(LocalTime.MAX) : day.atStartOfDay();
+            } else if (parts.length == 1 && defaultDay != null && parts[0].matches("\\d{4}")) {
+                return defaultDay.atTime(LocalTime.parse(parts[0], TIME_FORMATTER));
+            }
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        return null;
+    }
+
+    public LocalDateTime getStart() {
+        return this.start;
+    }
+
+    public LocalDateTime getEnd() {
+        return this.end;
+    }
+
+    public String getFrom() {
+        return this.afterFrom;
+    }
+
+    public String getTo() {
+        return this.afterTo;
+    }
 
     @Override
     public String getDescription() {
@@ -57,7 +152,7 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
+    protected String render() {
         return "[E][" + this.getStatusIcon() + "] " + this.description
                 + " (From: " + this.afterFrom + " To: " + this.afterTo + ")";
     }
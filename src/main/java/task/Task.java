@@ -4,13 +4,14 @@ package task;
  * The Task class represents a generic task with a description and a completion status.
  * <p>
  * It provides functionality for managing task attributes such as the
- * description, completion status (done or not done), and task number.
+ * description and completion status (done or not done).
+ * A task's number is its position in the task list, so it is not stored in the task itself, and creating
+ * a task has no effect on any task list until it is added to one.
  */
 public abstract class Task {
-    private static int totalTasks = 0;
     protected String description;
     protected boolean isDone;
-    private int taskNumber;
+    private volatile String displayText;
 
     /**
      * Constructs a Task with the specified description.
@@ -21,11 +22,6 @@ public abstract class Task {
     public Task(String description) {
         this.description = description;
         this.isDone = false;
-        totalTasks++;
-        assert totalTasks >= 0 : "Total tasks cannot be negative";
-        this.taskNumber = totalTasks;
-        assert this.taskNumber >= 0 : "Task number cannot be negative";
-
     }
 
     public String getStatusIcon() {
@@ -34,44 +30,43 @@ public abstract class Task {
 
     public void setMark() {
         this.isDone = true;
+        this.displayText = null;
     }
 
     public void setUnmark() {
         this.isDone = false;
+        this.displayText = null;
     }
 
-    public int getTaskNumber() {
-        assert this.taskNumber >= 0 : "Task number cannot be negative";
-        return this.taskNumber;
+    public boolean isDone() {
+        return this.isDone;
     }
 
     public String getDescription() {
         return this.description;
     }
 
-    public static int getTotalTasks() {
-        assert totalTasks >= 0 : "Total tasks cannot be negative";
-        return totalTasks;
-    }
+    public abstract String toDataFormat();
 
     /**
-     * Updates task number of this task, for when other task is deleted
+     * Returns how the task is displayed to the user, e.g. "[T][X] Buy milk".
      * <p>
-     * @param newTaskNumber The new task number of the task.
+     * The text is built once and reused until the task is marked or unmarked.
      */
-    public void updateTaskNumber(int newTaskNumber) {
-        assert this.taskNumber >= 0 : "Task number cannot be negative";
-        this.taskNumber = newTaskNumber;
+    @Override
+    public String toString() {
+        String text = displayText;
+        if (text == null) {
+            text = render();
+            displayText = text;
+        }
+        return text;
     }
+
     /**
-     * Decreases total number of tasks, for when other task is deleted
+     * Builds the text returned by {@link #toString()}.
      */
-    public void decrementTotalTasksCount() {
-        assert totalTasks > 0 : "Total tasks cannot be negative";
-        totalTasks--;
-    }
-
-    public abstract String toDataFormat();
+    protected abstract String render();
 
     /**
      * Converts a String (e.g from Storage and dardata.txt) from data format into a Task object (either T, D, E).
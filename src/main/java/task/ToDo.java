@@ -15,7 +15,7 @@ public class ToDo extends Task {
     }
 
     @Override
-    public String toString() {
+    protected String render() {
         return "[T][" + this.getStatusIcon() + "] " + description;
     }
 
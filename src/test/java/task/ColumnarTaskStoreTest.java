@@ -0,0 +1,92 @@
+package task;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+import command.ColumnarTaskStore;
+
+public class ColumnarTaskStoreTest {
+    @Test
+    public void get_eachTaskType_sameAsAdded() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        Task todo = new ToDo("Buy milk");
+        Task deadline = new Deadline("Submit assignment by 12/12/2222 1600");
+        Task event = new Event("Project meeting from 12/10/2025 1400 to 1600");
+        deadline.setMark();
+        store.add(todo);
+        store.add(deadline);
+        store.add(event);
+
+        assertEquals(3, store.size());
+        assertEquals(todo.toString(), store.get(0).toString());
+        assertEquals(deadline.toString(), store.get(1).toString());
+        assertEquals(event.toString(), store.get(2).toString());
+        assertEquals(((Event) event).getStart(), ((Event) store.get(2)).getStart());
+        assertTrue(store.isDone(1));
+    }
+
+    @Test
+    public void remove_manyTasks_restMovedDownWithFlags() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        for (int i = 0; i < 200; i++) {
+            Task task = new ToDo("Task " + i);
+            if (i % 3 == 0) {
+                task.setMark();
+            }
+            store.add(task);
+        }
+        for (int i = 0; i < 150; i++) {
+            store.remove(0);
+        }
+
+        assertEquals(50, store.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("Task " + (i + 150), store.get(i).getDescription());
+            assertEquals((i + 150) % 3 == 0, store.isDone(i));
+        }
+    }
+
+    @Test
+    public void setDoneAndFind_byPosition_changesAndMatches() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.add(new ToDo("Buy milk"));
+        store.add(new Event("Milk tasting from Monday to Tuesday"));
+        store.add(new ToDo("Walk dog"));
+
+        store.setDone(2, true);
+        assertTrue(store.get(2).isDone());
+        store.setDone(2, false);
+        assertFalse(store.isDone(2));
+        assertArrayEquals(new int[] {0, 1}, store.findMatches("MILK"));
+        assertArrayEquals(new int[0], store.findMatches("Monday"));
+    }
+
+    @Test
+    public void deadlinesAndEvents_byColumns_inOrder() {
+        ColumnarTaskStore store = new ColumnarTaskStore();
+        store.add(new Deadline("Essay by 12/12/2030 1600"));
+        store.add(new Deadline("Call by 0900"));
+        store.add(new Deadline("Report by 12/12/2030"));
+        store.add(new Deadline("Form by 01/12/2030 0800"));
+        store.add(new Event("Meeting from 12/12/2030 1400 to 12/12/2030 1500"));
+        store.add(new Event("Trip from 11/12/2030 to 12/12/2030"));
+
+        assertArrayEquals(new int[] {3, 0, 2, 1}, store.deadlinesInOrder());
+        assertArrayEquals(new int[] {0, 2}, store.deadlinesDueBetween(LocalDateTime.of(2030, 12, 12, 0, 0),
+                LocalDateTime.of(2030, 12, 13, 0, 0)));
+        assertArrayEquals(new int[] {3, 0}, store.deadlinesDueBefore(LocalDateTime.of(2030, 12, 12, 16, 1)));
+        assertArrayEquals(new int[] {5, 4}, store.eventsOverlapping(LocalDateTime.of(2030, 12, 12, 14, 30),
+                LocalDateTime.of(2030, 12, 12, 15, 0)));
+        assertEquals(LocalDate.of(2030, 12, 12).atTime(LocalTime.MAX),
+                store.findFreeSlot(LocalDateTime.of(2030, 12, 12, 10, 0), Duration.ofHours(1)));
+        assertArrayEquals(new int[] {0}, store.findDescription("Essay"));
+    }
+}
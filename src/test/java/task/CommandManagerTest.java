@@ -1,9 +1,16 @@
 package task;
 import static org.junit.jupiter.api.Assertions.assertEquals; // Static Import
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 // Standard Java Package Imports
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 // Special Imports (JUnit)
 import org.junit.jupiter.api.BeforeEach;
@@ -11,7 +18,10 @@ import org.junit.jupiter.api.Test;
 
 // Custom Imports
 import command.CommandManager;
+import dar.Dar;
+import dar.JournalStorage;
 import dar.Storage;
+import dar.Ui;
 
 public class CommandManagerTest {
     private CommandManager commandManager;
@@ -48,4 +58,313 @@ public class CommandManagerTest {
         String result = commandManager.addTodo("Buy eggs");
         assertTrue(result.contains("This task has duplicates"));
     }
+
+    @Test
+    public void addTodo_duplicateDeleted_notReported() {
+        commandManager.addTodo("Buy eggs");
+        commandManager.addTodo("Buy eggs");
+        commandManager.deleteTask("1");
+        assertTrue(commandManager.addTodo("Buy bread").contains("I've added this todo"));
+
+        String result = commandManager.addTodo("Buy eggs");
+        assertTrue(result.contains("Your duplicate tasks"));
+        assertEquals(2, result.split("Buy eggs", -1).length - 1);
+    }
+
+    @Test
+    public void findTasks_afterDelete_matchesSubstringsIgnoringCase() {
+        commandManager.addTodo("Buy milk");
+        commandManager.addTodo("Read book");
+        commandManager.addTodo("Return BOOKS to library");
+        commandManager.deleteTask("2");
+
+        String result = commandManager.findTasks("Book");
+        assertTrue(result.contains("2. [T][ ] Return BOOKS to library"));
+        assertFalse(result.contains("Read book"));
+        assertTrue(commandManager.findTasks("ook").contains("Return BOOKS"));
+        assertTrue(commandManager.findTasks("k").contains("1. [T][ ] Buy milk"));
+        assertTrue(commandManager.findTasks("books to lib").contains("Return BOOKS"));
+        assertTrue(commandManager.findTasks("brary x").contains("You have no matching tasks"));
+    }
+
+    @Test
+    public void findTasks_shortDescriptionsAndManyDeletes_matchesInOrder() {
+        commandManager.addTodo("Go");
+        for (int i = 1; i <= 40; i++) {
+            commandManager.addTodo("Chore " + i);
+        }
+        assertTrue(commandManager.findTasks("o").contains("1. [T][ ] Go"));
+        for (int i = 0; i < 30; i++) {
+            commandManager.deleteTask("2");
+        }
+        commandManager.addTodo("Ok");
+
+        String result = commandManager.findTasks("o");
+        assertTrue(result.contains("1. [T][ ] Go\n2. [T][ ] Chore 31\n"));
+        assertTrue(result.contains("12. [T][ ] Ok\n"));
+        assertTrue(commandManager.findTasks("ore 40").contains("11. [T][ ] Chore 40"));
+    }
+
+    @Test
+    public void listTasks_window_showsOnlyRequestedTasks() {
+        for (int i = 1; i <= 5; i++) {
+            commandManager.addTodo("Chore " + i);
+        }
+
+        String page = commandManager.listTasks(2, 2);
+        assertFalse(page.contains("Chore 2"));
+        assertTrue(page.contains("Chore 3\n"));
+        assertTrue(page.contains("Chore 4\n"));
+        assertFalse(page.contains("Chore 5"));
+        assertTrue(page.contains("(Showing tasks 3-4 of 5, type 'next' for more.)"));
+
+        assertTrue(commandManager.listTasks(4, 2).contains("(Showing tasks 5-5 of 5.)"));
+        assertTrue(commandManager.listTasks(6, 2).contains("There are no more tasks to show."));
+        assertFalse(commandManager.listTasks().contains("Showing"));
+    }
+
+    @Test
+    public void sortDeadline_differentMonths_chronologicalOrder() {
+        commandManager.addDeadline("Pay tax by 01/02/2030 0900");
+        commandManager.addDeadline("Renew passport by 15/01/2030 1000");
+        commandManager.addDeadline("Old report by 01/01/2000 1200");
+
+        String result = commandManager.sortDeadline();
+        assertTrue(result.indexOf("Old report") < result.indexOf("Renew passport"));
+        assertTrue(result.indexOf("Renew passport") < result.indexOf("Pay tax"));
+
+        String due = commandManager.findDue("between 10/01/2030 and 31/01/2030");
+        assertTrue(due.contains("2. [D][ ] Renew passport"));
+        assertFalse(due.contains("Pay tax"));
+        assertTrue(commandManager.findDue("before 01/02/2030").contains("Renew passport"));
+        assertFalse(commandManager.findDue("before 01/02/2030").contains("Pay tax"));
+        assertTrue(commandManager.listOverdue().contains("3. [D][ ] Old report"));
+        assertFalse(commandManager.listOverdue().contains("Pay tax"));
+        assertTrue(commandManager.findDue("soon").startsWith("Try 'due before"));
+    }
+
+    @Test
+    public void eventQueries_overlappingEvents_foundByInterval() {
+        commandManager.addEvent("Standup from 12/10/2030 0900 to 1000");
+        commandManager.addEvent("Workshop from 12/10/2030 0930 to 12/10/2030 1200");
+        commandManager.addEvent("Trip from 13/10/2030 to 14/10/2030");
+
+        String overlapping = commandManager.findOverlappingEvents("12/10/2030 1000 to 12/10/2030 1100");
+        assertTrue(overlapping.contains("2. [E][ ] Workshop"));
+        assertFalse(overlapping.contains("Standup"));
+
+        String onDay = commandManager.findEventsOn("12/10/2030");
+        assertTrue(onDay.indexOf("Standup") < onDay.indexOf("Workshop"));
+        assertFalse(onDay.contains("Trip"));
+        assertTrue(commandManager.findEventsOn("14/10/2030").contains("3. [E][ ] Trip"));
+
+        assertTrue(commandManager.findFreeSlot("2 from 12/10/2030 0800").contains("from 12/10/2030 1200"));
+        assertTrue(commandManager.findFreeSlot("1 from 12/10/2030 0800").contains("from 12/10/2030 0800"));
+        assertTrue(commandManager.findOverlappingEvents("tomorrow").startsWith("Try 'overlap"));
+    }
+
+    @Test
+    public void concurrentCommands_sharedManager_noLostUpdates() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int writer = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    commandManager.addTodo("Task " + writer + "-" + i);
+                    commandManager.findTasks("Task");
+                    commandManager.listTasks();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(400, commandManager.getTaskList().size());
+        assertTrue(commandManager.findTasks("Task 3-99").contains("Task 3-99"));
+    }
+
+    @Test
+    public void addTodo_separateManagers_numberedIndependently() {
+        CommandManager otherManager = new CommandManager(mockStorage);
+        commandManager.addTodo("Buy milk");
+        commandManager.addDeadline("Invalid deadline by someday");
+        new ToDo("Never added");
+
+        assertTrue(otherManager.addTodo("Walk dog").contains("1. [T][ ] Walk dog"));
+        assertTrue(commandManager.addTodo("Buy bread").contains("2. [T][ ] Buy bread"));
+        assertTrue(commandManager.deleteTask("1").contains("Now you have 1 task(s)"));
+    }
+
+    @Test
+    public void executeBatch_manyChanges_savedOnce() {
+        int[] saves = {0};
+        CommandManager batchManager = new CommandManager(new Storage("testTasks.txt") {
+            @Override
+            public void saveTasks(List<Task> tasks) {
+                saves[0]++;
+            }
+
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>();
+            }
+        });
+
+        List<String> responses = new Dar(batchManager).executeBatch(
+                Arrays.asList("todo Buy milk", "todo Walk dog", "mark 3", "mark 1"), false);
+
+        assertEquals(4, responses.size());
+        assertTrue(responses.get(2).contains("Invalid task number"));
+        assertEquals(2, batchManager.getTaskList().size());
+        assertTrue(batchManager.getTaskList().get(0).isDone());
+        assertEquals(1, saves[0]);
+    }
+
+    @Test
+    public void executeBatch_allOrNothingWithFailure_changesUndone() {
+        commandManager.addTodo("Buy milk");
+        Dar dar = new Dar(commandManager);
+
+        List<String> responses = dar.executeBatch(
+                Arrays.asList("mark 1", "delete 1", "todo Walk dog", "unknown command", "todo Never run"), true);
+
+        assertEquals(5, responses.size());
+        assertTrue(responses.get(4).contains("Command 4 failed"));
+        assertEquals(1, commandManager.getTaskList().size());
+        assertFalse(commandManager.getTaskList().get(0).isDone());
+        assertTrue(commandManager.findTasks("milk").contains("1. [T][ ] Buy milk"));
+        assertTrue(commandManager.findTasks("dog").contains("no matching tasks"));
+
+        assertEquals(2, dar.executeBatch(Arrays.asList("todo Walk dog", "list"), true).size());
+        assertEquals(2, commandManager.getTaskList().size());
+    }
+
+    @Test
+    public void listPage_hugeOrPastTheEnd_invalidPage() throws IOException {
+        String invalidPage = new Ui().showInvalidPageMessage();
+        Dar dar = new Dar(commandManager);
+        assertTrue(dar.getResponse("list 1").contains("your list is empty"));
+        assertEquals(invalidPage, dar.getResponse("list 2"));
+        assertEquals(invalidPage, dar.getResponse("list 50000000"));
+
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            lines.add("T | 0 | Task " + i);
+        }
+        Path file = Files.write(Paths.get("pagedTasks.txt"), lines);
+        Dar lazyDar = new Dar(new CommandManager(new Storage(file.toString()), true));
+        assertTrue(lazyDar.getResponse("list 3").contains("101. [T][ ] Task 101\n"));
+        assertEquals(invalidPage, lazyDar.getResponse("list 4"));
+        assertEquals(invalidPage, lazyDar.getResponse("list 50000000"));
+        Files.delete(file);
+    }
+
+    @Test
+    public void close_journalStorage_changesBeforeAndAfterLoadedAgain() throws IOException {
+        JournalStorage storage = new JournalStorage("closeTasks.txt");
+        CommandManager journaledManager = new CommandManager(storage);
+        journaledManager.addTodo("Buy milk");
+        journaledManager.markTask("1");
+
+        journaledManager.close();
+        journaledManager.addTodo("Walk dog");
+        storage.awaitCompaction();
+
+        JournalStorage reopened = new JournalStorage("closeTasks.txt");
+        List<Task> loadedTasks = reopened.loadTasks();
+        assertEquals(2, loadedTasks.size());
+        assertTrue(loadedTasks.get(0).isDone());
+        assertEquals("[T][ ] Walk dog", loadedTasks.get(1).toString());
+        reopened.awaitCompaction();
+        reopened.close();
+        Files.deleteIfExists(Paths.get("closeTasks.txt"));
+        Files.deleteIfExists(Paths.get("closeTasks.txt.journal"));
+    }
+
+    @Test
+    public void lazyLoading_largeFile_firstPageThenWholeList() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 120; i++) {
+            lines.add("T | 0 | Task " + i);
+        }
+        lines.add("");
+        Path file = Files.write(Paths.get("lazyTasks.txt"), lines);
+        CommandManager lazyManager = new CommandManager(new Storage(file.toString()), true);
+
+        String firstPage = lazyManager.listTasks();
+        assertTrue(firstPage.contains("1. [T][ ] Task 1\n"));
+        assertTrue(firstPage.contains("50. [T][ ] Task 50\n"));
+        assertFalse(firstPage.contains("51."));
+        assertTrue(lazyManager.findTasks("Task 120").contains("120. [T][ ] Task 120"));
+        assertEquals(120, lazyManager.getTaskList().size());
+        Files.delete(file);
+    }
+
+    @Test
+    public void lazyLoading_changesWhileLoading_keptOnceLoaded() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            lines.add("T | 0 | Task " + i);
+        }
+        Path file = Files.write(Paths.get("lazyChangedTasks.txt"), lines);
+        CommandManager lazyManager = new CommandManager(new Storage(file.toString()), true);
+
+        assertTrue(lazyManager.markTask("2").contains("[T][X] Task 2"));
+        assertTrue(lazyManager.deleteTask("1").contains("Task 1\n"));
+        assertTrue(lazyManager.addTodo("Walk dog").contains("[T][ ] Walk dog"));
+        assertTrue(lazyManager.listTasks().startsWith("Here's your list, better get going!\n1. [T][X] Task 2\n"));
+
+        assertEquals(2000, lazyManager.getTaskList().size());
+        assertTrue(lazyManager.findTasks("dog").contains("2000. [T][ ] Walk dog"));
+        assertTrue(lazyManager.findTasks("Task 2").contains("1. [T][X] Task 2\n"));
+        assertEquals(2000, new Storage(file.toString()).loadTasks().size());
+        Files.delete(file);
+    }
+
+    @Test
+    public void lazyLoading_invalidLine_numbersMatchLoadedList() throws IOException {
+        Path file = Files.write(Paths.get("lazyInvalidTasks.txt"),
+                Arrays.asList("T | 0 | First", "D | 0 | Broken deadline", "T | 1 | Third"));
+        CommandManager lazyManager = new CommandManager(new Storage(file.toString()), true);
+
+        assertTrue(lazyManager.listTasks().contains("2. [T][X] Third"));
+        assertEquals(2, lazyManager.getTaskList().size());
+        Files.delete(file);
+    }
+
+    @Test
+    public void compactMode_sameCommands_sameRepliesAsTaskList() {
+        CommandManager compactManager = new CommandManager(mockStorage, false, true);
+        for (CommandManager manager : List.of(commandManager, compactManager)) {
+            manager.addTodo("Buy milk");
+            manager.addDeadline("Essay by 12/12/2030 1600");
+            manager.addEvent("Meeting from 12/12/2030 1400 to 12/12/2030 1500");
+            manager.addDeadline("Report by 01/12/2030");
+            manager.addTodo("Buy milk");
+            manager.addDeadline("Call by 0900");
+            manager.markTask("2");
+            manager.deleteTask("1");
+            manager.unmarkTask("2");
+            manager.markTask("1");
+        }
+
+        assertEquals(commandManager.listTasks(), compactManager.listTasks());
+        assertEquals(commandManager.findTasks("MILK"), compactManager.findTasks("MILK"));
+        assertEquals(commandManager.findDuplicates(new ToDo("Buy milk")),
+                compactManager.findDuplicates(new ToDo("Buy milk")));
+        assertEquals(commandManager.sortDeadline(), compactManager.sortDeadline());
+        assertEquals(commandManager.findDue("between 01/12/2030 and 12/12/2030"),
+                compactManager.findDue("between 01/12/2030 and 12/12/2030"));
+        assertEquals(commandManager.findDue("before 12/12/2030"), compactManager.findDue("before 12/12/2030"));
+        assertEquals(commandManager.findEventsOn("12/12/2030"), compactManager.findEventsOn("12/12/2030"));
+        assertEquals(commandManager.findFreeSlot("2 from 12/12/2030 1300"),
+                compactManager.findFreeSlot("2 from 12/12/2030 1300"));
+        assertEquals(commandManager.addTodo("Buy milk"), compactManager.addTodo("Buy milk"));
+        assertTrue(compactManager.sortDeadline().contains("1. [D][X] Essay"));
+        assertTrue(compactManager.findFreeSlot("2 from 12/12/2030 1300").contains("12/12/2030 1500"));
+    }
 }
@@ -0,0 +1,75 @@
+package task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import command.CommandManager;
+import dar.CommandTrie;
+import dar.Dar;
+import dar.Storage;
+
+public class CommandTrieTest {
+    @Test
+    public void find_wordsAndAbbreviations_resolvedInPlace() {
+        CommandTrie<String> trie = new CommandTrie<>();
+        trie.put("delete", "delete");
+        trie.put("deadline", "deadline");
+        trie.put("rm", "delete");
+        trie.put("on", "on");
+        trie.put("overdue", "overdue");
+
+        assertEquals("delete", trie.find("  DELETE 2", 2, 8));
+        assertEquals("delete", trie.find("del"));
+        assertEquals("deadline", trie.find("dea"));
+        assertEquals("on", trie.find("on"));
+        assertEquals("overdue", trie.find("ov"));
+        assertNull(trie.find("de"));
+        assertNull(trie.find("o"));
+        assertNull(trie.find("deletes"));
+        assertNull(trie.find("r2"));
+        assertNull(trie.find(""));
+    }
+
+    @Test
+    public void find_minimumAbbreviationLength_shorterPrefixesRejected() {
+        CommandTrie<String> trie = new CommandTrie<>();
+        trie.put("bye", "bye", 3);
+        trie.put("mark", "mark", 3);
+        trie.put("due", "due");
+
+        assertEquals("bye", trie.find("bye"));
+        assertNull(trie.find("b"));
+        assertNull(trie.find("by"));
+        assertNull(trie.find("m"));
+        assertNull(trie.find("ma"));
+        assertEquals("mark", trie.find("mar"));
+        assertEquals("due", trie.find("d"));
+    }
+
+    @Test
+    public void getResponse_aliasesAndAbbreviations_dispatched() {
+        Dar dar = new Dar(new CommandManager(new Storage("testTasks.txt") {
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>();
+            }
+        }));
+
+        assertTrue(dar.getResponse("  TODO  Buy milk  ").contains("1. [T][ ]  Buy milk"));
+        assertTrue(dar.getResponse("add Walk dog").contains("2. [T][ ] Walk dog"));
+        assertTrue(dar.getResponse("ls").contains("2. [T][ ] Walk dog"));
+        assertTrue(dar.getResponse("done 2").contains("[T][X] Walk dog"));
+        assertTrue(dar.getResponse("d 1").contains("don't understand"));
+        assertTrue(dar.getResponse("t Walk cat").contains("don't understand"));
+        assertTrue(dar.getResponse("m 1").contains("don't understand"));
+        assertTrue(dar.getResponse("b").contains("don't understand"));
+        assertTrue(dar.getResponse("tod Walk cat").contains("3. [T][ ] Walk cat"));
+        assertTrue(dar.getResponse("rm 1").contains("Now you have 2 task(s)"));
+        assertTrue(dar.getResponse("   ").contains("You entered nothing"));
+        assertTrue(dar.isExitCommand(" Quit"));
+    }
+}
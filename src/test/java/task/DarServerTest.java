@@ -0,0 +1,117 @@
+package task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import command.CommandManager;
+import dar.DarServer;
+import dar.Storage;
+
+public class DarServerTest {
+    private CommandManager commandManager;
+    private DarServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        commandManager = new CommandManager(new Storage("serverTasks.txt") {
+            @Override
+            public void saveTasks(List<Task> tasks) {
+                // Keep the test in memory
+            }
+
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>();
+            }
+        });
+        server = new DarServer(commandManager, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void session_commandsOverLoopback_responsesReturned() throws IOException {
+        try (Client client = new Client(server.getPort())) {
+            assertTrue(client.readResponse().contains("The name's Dar"));
+            assertTrue(client.send("todo Buy milk").contains("1. [T][ ] Buy milk"));
+            assertTrue(client.send("list").contains("1. [T][ ] Buy milk"));
+            assertTrue(client.send("bye").contains("see ya around"));
+            assertNull(client.in.readLine());
+        }
+    }
+
+    @Test
+    public void sessions_manyConcurrentClients_shareOneTaskList() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            int clientNumber = i;
+            results.add(clients.submit(() -> {
+                try (Client client = new Client(server.getPort())) {
+                    client.readResponse();
+                    return client.send("todo Client " + clientNumber);
+                }
+            }));
+        }
+        for (Future<String> result : results) {
+            assertTrue(result.get().contains("I've added this todo"));
+        }
+        clients.shutdown();
+
+        assertEquals(64, commandManager.getTaskList().size());
+    }
+
+    /**
+     * A client reading responses terminated by a line holding only ".".
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String send(String command) throws IOException {
+            out.println(command);
+            return readResponse();
+        }
+
+        String readResponse() throws IOException {
+            StringBuilder response = new StringBuilder();
+            String line;
+            while (!(line = in.readLine()).equals(DarServer.END_OF_RESPONSE)) {
+                response.append(line.startsWith(".") ? line.substring(1) : line).append('\n');
+            }
+            return response.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package task;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
 
 import org.junit.jupiter.api.Test;
 
@@ -14,4 +20,79 @@ public class DeadlineTest {
         Deadline deadline = new Deadline("Project Work by 12/12/2222 1600");
         assertEquals("4PM", deadline.getDeadlineTime().toUpperCase());
     }
+
+    @Test
+    public void parser_isoDateAndColonTime_parsed() {
+        DeadlineParser parser = new DeadlineParser();
+        assertTrue(parser.parse("2025-12-31T16:30"));
+        assertEquals(LocalDate.of(2025, 12, 31), parser.getDate());
+        assertEquals(LocalTime.of(16, 30), parser.getTime());
+
+        assertTrue(parser.parse("2025-01-02 0900"));
+        assertEquals(LocalDate.of(2025, 1, 2), parser.getDate());
+        assertEquals(LocalTime.of(9, 0), parser.getTime());
+    }
+
+    @Test
+    public void parser_relativeDates_countFromToday() {
+        LocalDate wednesday = LocalDate.of(2025, 10, 15);
+        DeadlineParser parser = new DeadlineParser(wednesday);
+        assertTrue(parser.parse("tomorrow 1600"));
+        assertEquals(LocalDate.of(2025, 10, 16), parser.getDate());
+        assertTrue(parser.isRelative());
+
+        assertTrue(parser.parse("Monday"));
+        assertEquals(LocalDate.of(2025, 10, 20), parser.getDate());
+        assertNull(parser.getTime());
+
+        assertTrue(parser.parse("wed"));
+        assertEquals(wednesday, parser.getDate());
+
+        assertTrue(parser.parse("thurs 1600"));
+        assertEquals(LocalDate.of(2025, 10, 16), parser.getDate());
+    }
+
+    @Test
+    public void parser_abbreviatedDayBeforeWord_notADate() {
+        DeadlineParser parser = new DeadlineParser(LocalDate.of(2025, 10, 15));
+        assertFalse(parser.parse("sun cream shop"));
+        assertFalse(parser.parse("sat exam"));
+        assertFalse(parser.parse("sunny"));
+        assertTrue(parser.parse("sunday lunch"));
+        assertEquals(LocalDate.of(2025, 10, 19), parser.getDate());
+    }
+
+    @Test
+    public void parser_invalidDateOrTime_errorWithoutException() {
+        DeadlineParser parser = new DeadlineParser();
+        assertFalse(parser.parse("12/13/2025"));
+        assertEquals("The month must be from 01 to 12.", parser.getError());
+        assertFalse(parser.parse("12/12/2025 1260"));
+        assertEquals("The minutes must be from 00 to 59.", parser.getError());
+        assertFalse(parser.parse("sometime soon"));
+        assertEquals("No date or time was found.", parser.getError());
+    }
+
+    @Test
+    public void parser_legacyFormats_sameAsBefore() {
+        DeadlineParser parser = new DeadlineParser();
+        assertTrue(parser.parse("31/02/2023"));
+        assertEquals(LocalDate.of(2023, 2, 28), parser.getDate());
+        assertTrue(parser.parse("2400"));
+        assertEquals(LocalTime.MIDNIGHT, parser.getTime());
+    }
+
+    @Test
+    public void deadline_relativeDate_savedAsFullDate() {
+        Deadline deadline = new Deadline("Project Work by tomorrow 1600", LocalDate.of(2025, 12, 31));
+        assertEquals("D | 0 | Project Workby 01/01/2026 1600", deadline.toDataFormat());
+    }
+
+    @Test
+    public void fromDataFormat_relativeWords_notTakenAsDates() {
+        Task loaded = Task.fromDataFormat("D | 0 | Call mum on monday by monday 1600");
+        assertEquals("D | 0 | Call mum on mondayby monday 1600", loaded.toDataFormat());
+        assertNull(((Deadline) loaded).getDueDate());
+        assertEquals(LocalTime.of(16, 0), ((Deadline) loaded).getDueTime());
+    }
 }
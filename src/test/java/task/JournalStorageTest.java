@@ -0,0 +1,195 @@
+package task;
+import static org.junit.jupiter.api.Assertions.assertEquals; // Static Import
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Standard Java Package Imports
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Special Imports (JUnit)
+import org.junit.jupiter.api.Test;
+
+// Custom Imports
+import dar.Durability;
+import dar.JournalStorage;
+import dar.PersistenceScheduler;
+
+public class JournalStorageTest {
+    @Test
+    public void loadTasks_journaledChanges_replayedOnSnapshot() {
+        JournalStorage storage = new JournalStorage("test_journal.txt", 1000, 1024 * 1024, 0, 1,
+                Durability.everyCommit());
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Finish homework"));
+        tasks.add(new Deadline("Submit assignment by 12/12/2222 1600"));
+        storage.saveTasks(tasks);
+
+        Task event = new Event("Project meeting from monday to wednesday");
+        storage.recordAdd(tasks, event);
+        storage.recordMark(tasks, 2);
+        storage.recordDelete(tasks, 1);
+        storage.recordUnmark(tasks, 1);
+        storage.recordMark(tasks, 2);
+        assertTrue(new File("test_journal.txt.journal").exists());
+
+        List<Task> loadedTasks = storage.loadTasks();
+
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[D][ ] Submit assignment (By: 12 Dec 2222 4PM)", loadedTasks.get(0).toString());
+        assertEquals("[E][X] Project meeting  (From: monday To: wednesday)", loadedTasks.get(1).toString());
+
+        storage.awaitCompaction();
+        storage.close();
+        new File("test_journal.txt").delete();
+        new File("test_journal.txt.journal").delete();
+    }
+
+    @Test
+    public void recordAdd_thresholdReached_compactsInBackground() throws IOException {
+        JournalStorage storage = new JournalStorage("test_compaction.txt", 3, 1024);
+        ArrayList<Task> tasks = new ArrayList<>();
+        storage.saveTasks(tasks);
+
+        storage.recordAdd(tasks, new ToDo("Read book"));
+        storage.recordAdd(tasks, new ToDo("Return book"));
+        storage.recordMark(tasks, 1);
+        storage.awaitCompaction();
+
+        assertEquals(List.of("T | 1 | Read book", "T | 0 | Return book"),
+                Files.readAllLines(Paths.get("test_compaction.txt")));
+        assertFalse(new File("test_compaction.txt.journal").exists());
+        assertFalse(new File("test_compaction.txt.journal.old").exists());
+
+        storage.recordDelete(tasks, 1);
+        assertEquals(1, storage.loadTasks().size());
+
+        storage.awaitCompaction();
+        storage.close();
+        new File("test_compaction.txt").delete();
+    }
+
+    @Test
+    public void compaction_badAndBlankSnapshotLines_taskNumbersMatchLoadedTasks() throws IOException {
+        Files.write(Paths.get("test_compaction_bad.txt"),
+                List.of("T | 0 | first", "D | 0 | Broken deadline", "", "T | 0 | second", "T | 0 | third"));
+        JournalStorage storage = new JournalStorage("test_compaction_bad.txt", 2, 1024);
+        List<Task> tasks = storage.loadTasks();
+        assertEquals(3, tasks.size());
+
+        storage.recordDelete(tasks, 2);
+        storage.recordMark(tasks, 2);
+        storage.awaitCompaction();
+
+        assertEquals(List.of("T | 0 | first", "D | 0 | Broken deadline", "T | 1 | third"),
+                Files.readAllLines(Paths.get("test_compaction_bad.txt")));
+        List<Task> loadedTasks = storage.loadTasks();
+        assertEquals(2, loadedTasks.size());
+        assertEquals("[T][X] third", loadedTasks.get(1).toString());
+
+        storage.awaitCompaction();
+        storage.close();
+        new File("test_compaction_bad.txt").delete();
+    }
+
+    @Test
+    public void submit_burstOfRecords_writtenAsOneBatch() {
+        List<List<String>> batches = new ArrayList<>();
+        PersistenceScheduler scheduler = new PersistenceScheduler(new PersistenceScheduler.Sink() {
+            @Override
+            public void write(List<String> records) {
+                batches.add(new ArrayList<>(records));
+            }
+
+            @Override
+            public void sync() {
+            }
+        }, 60_000, 3, Durability.onExit());
+
+        scheduler.submit("ADD | T | 0 | a");
+        scheduler.submit("ADD | T | 0 | b");
+        assertEquals(0, batches.size());
+        assertEquals(2, scheduler.getPendingCount());
+
+        scheduler.submit("MARK | 1");
+        assertEquals(Collections.singletonList(List.of("ADD | T | 0 | a", "ADD | T | 0 | b", "MARK | 1")), batches);
+        scheduler.close();
+    }
+
+    @Test
+    public void submit_afterClose_writtenAndSyncedStraightAway() {
+        List<String> written = new ArrayList<>();
+        int[] syncs = {0};
+        PersistenceScheduler scheduler = new PersistenceScheduler(new PersistenceScheduler.Sink() {
+            @Override
+            public void write(List<String> records) {
+                written.addAll(records);
+            }
+
+            @Override
+            public void sync() {
+                syncs[0]++;
+            }
+        }, 60_000, 3, Durability.everyMillis(1000));
+        scheduler.close();
+
+        scheduler.submit("ADD | T | 0 | a");
+        assertEquals(List.of("ADD | T | 0 | a"), written);
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals(1, syncs[0]);
+    }
+
+    @Test
+    public void recordAdd_afterClose_journaledAndLoaded() {
+        JournalStorage storage = new JournalStorage("test_closed.txt", 2, 1024);
+        ArrayList<Task> tasks = new ArrayList<>();
+        storage.saveTasks(tasks);
+        storage.close();
+
+        storage.recordAdd(tasks, new ToDo("Read book"));
+        storage.recordAdd(tasks, new ToDo("Return book"));
+        storage.saveTasks(List.of(new ToDo("Read book"), new ToDo("Return book"), new ToDo("Buy book")));
+        storage.recordMark(tasks, 1);
+
+        JournalStorage reopened = new JournalStorage("test_closed.txt");
+        List<Task> loadedTasks = reopened.loadTasks();
+        assertEquals(3, loadedTasks.size());
+        assertTrue(loadedTasks.get(0).isDone());
+
+        reopened.awaitCompaction();
+        reopened.close();
+        new File("test_closed.txt").delete();
+        new File("test_closed.txt.journal").delete();
+    }
+
+    @Test
+    public void commitBatch_recordsInBatch_writtenOnCommitOnly() {
+        JournalStorage storage = new JournalStorage("test_batch.txt", 1000, 1024 * 1024, 0, 1,
+                Durability.everyCommit());
+        ArrayList<Task> tasks = new ArrayList<>();
+        storage.saveTasks(tasks);
+
+        storage.beginBatch();
+        storage.recordAdd(tasks, new ToDo("Dropped task"));
+        storage.abortBatch();
+        storage.beginBatch();
+        storage.recordAdd(tasks, new ToDo("Read book"));
+        storage.recordMark(tasks, 1);
+        assertFalse(new File("test_batch.txt.journal").exists());
+        storage.commitBatch(tasks);
+
+        List<Task> loadedTasks = storage.loadTasks();
+        assertEquals(1, loadedTasks.size());
+        assertEquals("[T][X] Read book", loadedTasks.get(0).toString());
+
+        storage.awaitCompaction();
+        storage.close();
+        new File("test_batch.txt").delete();
+    }
+}
@@ -0,0 +1,88 @@
+package task;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import command.CommandManager;
+import dar.Dar;
+import dar.LatencyHistogram;
+import dar.Metrics;
+import dar.Storage;
+
+public class MetricsTest {
+    @Test
+    public void valueAtPercentile_uniformValues_withinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_500.0, histogram.getMean(), 1.0);
+        assertEquals(5_000_000.0, histogram.valueAtPercentile(50), 5_000_000.0 / 16);
+        assertEquals(9_900_000.0, histogram.valueAtPercentile(99), 9_900_000.0 / 16);
+        assertEquals(10_000_000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void valueAtPercentile_smallValues_exact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+
+        assertEquals(3, histogram.valueAtPercentile(50));
+        assertEquals(7, histogram.valueAtPercentile(99));
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(50));
+    }
+
+    @Test
+    public void stats_afterCommands_countsEachCommandUnderItsName() {
+        CommandManager commandManager = new CommandManager(new Storage("metricsTasks.txt") {
+            @Override
+            public void saveTasks(List<Task> tasks) {
+                // Keep the test in memory
+            }
+
+            @Override
+            public ArrayList<Task> loadTasks() {
+                return new ArrayList<>();
+            }
+        });
+        Dar dar = new Dar(commandManager);
+
+        dar.getResponse("todo Buy milk");
+        dar.getResponse("add Buy bread");
+        dar.getResponse("list");
+
+        Metrics metrics = commandManager.getMetrics();
+        assertEquals(3, metrics.getCommandsRun());
+        assertEquals(2, metrics.commandLatency("todo").getCount());
+        String stats = dar.getResponse("stats");
+        assertTrue(stats.contains("todo: 2 runs"));
+        assertTrue(stats.contains("list: 1 runs"));
+    }
+
+    @Test
+    public void storage_saveAndLoad_countsTasksAndBytes() {
+        Storage storage = new Storage("metrics_data.txt");
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Finish homework"));
+        tasks.add(new ToDo("Read book"));
+
+        storage.saveTasks(tasks);
+        storage.loadTasks();
+
+        Metrics metrics = storage.getMetrics();
+        assertEquals(1, metrics.getSaves());
+        assertEquals(2, metrics.getTasksSaved());
+        assertEquals(2, metrics.getTasksLoaded());
+        assertEquals(new File("metrics_data.txt").length(), metrics.getBytesWritten());
+        new File("metrics_data.txt").delete();
+    }
+}
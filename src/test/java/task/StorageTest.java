@@ -3,14 +3,22 @@ import static org.junit.jupiter.api.Assertions.assertEquals; // Static Import
 
 // Standard Java Package Imports
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 // Special Imports (JUnit)
 import org.junit.jupiter.api.Test;
 
 // Custom Imports
+import dar.MappedTaskLoader;
 import dar.Storage;
+import dar.StorageFormat;
+import dar.TaskFileConverter;
 
 public class StorageTest {
     @Test
@@ -35,4 +43,62 @@ public class StorageTest {
 
         new File("test_data.txt").delete();
     }
+
+    @Test
+    public void saveTasks_nonAsciiDescription_writtenAsUtf8() throws IOException {
+        Storage storage = new Storage("test_utf8.txt");
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Caf\u00e9 au lait \u65e5\u672c \ud83d\ude00"));
+        storage.saveTasks(tasks);
+
+        String line = new String(Files.readAllBytes(Paths.get("test_utf8.txt")), StandardCharsets.UTF_8);
+        assertEquals(tasks.get(0).toDataFormat() + System.lineSeparator(), line);
+        assertEquals(tasks.get(0).toString(), storage.loadTasks().get(0).toString());
+        new File("test_utf8.txt").delete();
+    }
+
+    @Test
+    public void mappedTaskLoader_smallChunks_keepsFileOrder() throws IOException {
+        Storage storage = new Storage("test_mapped.txt");
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tasks.add(i % 2 == 0 ? new ToDo("Task " + i) : new Deadline("Task " + i + " by 01/02/2030 0900"));
+        }
+        storage.saveTasks(tasks);
+
+        List<Task> loadedTasks = new MappedTaskLoader(ForkJoinPool.commonPool(), 64)
+                .load(Paths.get("test_mapped.txt"));
+
+        assertEquals(tasks.size(), loadedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+        }
+
+        new File("test_mapped.txt").delete();
+    }
+
+    @Test
+    public void binaryFormat_convertedFromText_sameTasks() {
+        Storage textStorage = new Storage("test_convert.txt");
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new ToDo("Finish homework"));
+        tasks.add(new Deadline("Submit assignment by 12/12/2222 1600"));
+        tasks.add(new Deadline("Pay rent by 01/03/2030"));
+        tasks.add(new Event("Project meeting from monday to wednesday"));
+        tasks.get(1).setMark();
+        textStorage.saveTasks(tasks);
+
+        assertEquals(4, TaskFileConverter.convert("test_convert.txt", StorageFormat.TEXT,
+                "test_convert.bin", StorageFormat.BINARY));
+        List<Task> loadedTasks = new Storage("test_convert.bin", StorageFormat.BINARY).loadTasks();
+
+        assertEquals(tasks.size(), loadedTasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), loadedTasks.get(i).toString());
+            assertEquals(tasks.get(i).toDataFormat(), loadedTasks.get(i).toDataFormat());
+        }
+
+        new File("test_convert.txt").delete();
+        new File("test_convert.bin").delete();
+    }
 }
@@ -0,0 +1,60 @@
+package task;
+import static org.junit.jupiter.api.Assertions.assertEquals; // Static Import
+
+// Standard Java Package Imports
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Special Imports (JUnit)
+import org.junit.jupiter.api.Test;
+
+// Custom Imports
+import command.TaskList;
+
+public class TaskListTest {
+    @Test
+    public void randomAddsAndDeletes_matchArrayList() {
+        TaskList taskList = new TaskList();
+        List<Task> expected = new ArrayList<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                Task task = new ToDo("Task " + i);
+                taskList.add(task);
+                expected.add(task);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), taskList.remove(index));
+            }
+
+            assertEquals(expected.size(), taskList.size());
+            if (i % 97 == 0) {
+                assertEquals(expected, new ArrayList<>(taskList));
+                for (int j = 0; j < expected.size(); j++) {
+                    assertEquals(expected.get(j), taskList.get(j));
+                    assertEquals(j + 1, taskList.numberOf(expected.get(j)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void deleteMostTasks_numbersStayPositional() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(new ToDo("Task " + i));
+        }
+        TaskList taskList = new TaskList(tasks);
+
+        for (int i = 0; i < 90; i++) {
+            taskList.remove(0);
+        }
+
+        assertEquals(10, taskList.size());
+        assertEquals(tasks.get(90), taskList.get(0));
+        assertEquals(10, taskList.numberOf(tasks.get(99)));
+        assertEquals(-1, taskList.numberOf(tasks.get(0)));
+    }
+}